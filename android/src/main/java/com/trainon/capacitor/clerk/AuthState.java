@@ -0,0 +1,69 @@
+package com.trainon.capacitor.clerk;
+
+/**
+ * Immutable snapshot of the plugin's auth state: the client, the active session and its token,
+ * the signed-in user, and every other session on the client.
+ *
+ * Everything that has to agree with everything else lives in one object, so a reader on the
+ * bridge thread sees either the state before a transition or the state after it, never a new
+ * token paired with the old user. Snapshots are published through {@link AuthStateRef}.
+ */
+final class AuthState {
+
+    static final AuthState EMPTY = new AuthState(null, null, null, 0, null, SessionIndex.EMPTY);
+
+    final String clientToken;
+    final String sessionId;
+    final String sessionToken;
+    // exp of sessionToken in milliseconds since the epoch, 0 if unknown
+    final long tokenExpiresAtMs;
+    final ClerkUser user;
+    // All sessions on the client, including the active one
+    final SessionIndex sessions;
+
+    private AuthState(String clientToken, String sessionId, String sessionToken, long tokenExpiresAtMs, ClerkUser user,
+                      SessionIndex sessions) {
+        this.clientToken = clientToken;
+        this.sessionId = sessionId;
+        this.sessionToken = sessionToken;
+        this.tokenExpiresAtMs = tokenExpiresAtMs;
+        this.user = user;
+        this.sessions = sessions;
+    }
+
+    AuthState withClientToken(String clientToken) {
+        return new AuthState(clientToken, sessionId, sessionToken, tokenExpiresAtMs, user, sessions);
+    }
+
+    /**
+     * Makes the given session active, along with its token and user. The token is also recorded
+     * in the session index.
+     */
+    AuthState withSession(String sessionId, String sessionToken, ClerkUser user) {
+        return new AuthState(clientToken, sessionId, sessionToken, TokenManager.decodeExpiry(sessionToken), user,
+            sessions.withToken(sessionId, sessionToken));
+    }
+
+    /**
+     * Replaces the token of the active session, here and in the session index.
+     */
+    AuthState withSessionToken(String sessionToken) {
+        return new AuthState(clientToken, sessionId, sessionToken, TokenManager.decodeExpiry(sessionToken), user,
+            sessions.withToken(sessionId, sessionToken));
+    }
+
+    AuthState withUser(ClerkUser user) {
+        return new AuthState(clientToken, sessionId, sessionToken, tokenExpiresAtMs, user, sessions);
+    }
+
+    AuthState withSessions(SessionIndex sessions) {
+        return new AuthState(clientToken, sessionId, sessionToken, tokenExpiresAtMs, user, sessions);
+    }
+
+    /**
+     * Drops the active session but keeps the client and its session index.
+     */
+    AuthState withoutSession() {
+        return new AuthState(clientToken, null, null, 0, null, sessions);
+    }
+}
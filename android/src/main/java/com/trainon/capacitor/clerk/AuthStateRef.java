@@ -0,0 +1,48 @@
+package com.trainon.capacitor.clerk;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes the current {@link AuthState}. Reads are a single volatile load; writes are
+ * compare-and-set transitions, retried if another thread published in between.
+ */
+final class AuthStateRef {
+
+    /**
+     * Derives the next state from the current one. May be called more than once under
+     * contention, so it must not have side effects.
+     */
+    interface Transition {
+        AuthState apply(AuthState current);
+    }
+
+    private final AtomicReference<AuthState> ref = new AtomicReference<>(AuthState.EMPTY);
+
+    AuthState get() {
+        return ref.get();
+    }
+
+    /**
+     * Applies the transition atomically and returns the state it produced.
+     */
+    AuthState update(Transition transition) {
+        while (true) {
+            AuthState current = ref.get();
+            AuthState next = transition.apply(current);
+            if (next == current || ref.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Publishes the state only if nothing else has been published since expected was read.
+     */
+    boolean compareAndSet(AuthState expected, AuthState next) {
+        return ref.compareAndSet(expected, next);
+    }
+
+    void set(AuthState state) {
+        ref.set(state);
+    }
+}
@@ -0,0 +1,234 @@
+package com.trainon.capacitor.clerk;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent key/value store for the plugin's auth state.
+ *
+ * The in-memory map is authoritative: reads never touch the disk and writes return
+ * immediately. Changes are flushed behind the caller on a dedicated thread, coalescing
+ * everything written within a short window into a single write, which replaces the file
+ * atomically so a crash mid-write can't leave half a session behind. The file is read on the
+ * same thread when the plugin loads, instead of on the main thread.
+ */
+final class AuthStateStore {
+
+    interface LoadListener {
+        void onLoaded(Map<String, String> state);
+    }
+
+    private static final String TAG = "ClerkAuthStateStore";
+    private static final String FILE_NAME = "clerk_native_state.json";
+
+    // Writes landing within this window go to disk together
+    private static final long FLUSH_DELAY_MS = 250;
+
+    private final Context context;
+    private final String legacyPrefsName;
+    private final AtomicFile file;
+    private final ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final Map<String, String> values = new HashMap<>();
+
+    private final AtomicLong writeRequests = new AtomicLong();
+    private final AtomicLong diskWrites = new AtomicLong();
+
+    private boolean dirty;
+    private boolean flushScheduled;
+
+    /**
+     * @param legacyPrefsName SharedPreferences file to migrate from the first time the store is
+     *                        loaded
+     */
+    AuthStateStore(Context context, String legacyPrefsName) {
+        this.context = context;
+        this.legacyPrefsName = legacyPrefsName;
+        this.file = new AtomicFile(new File(context.getFilesDir(), FILE_NAME));
+    }
+
+    /**
+     * Starts reading the state from disk in the background. The listener runs on the store's
+     * thread with the loaded values, before anyone waiting in awaitLoaded() is released.
+     */
+    void preload(LoadListener listener) {
+        io.execute(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                readFromDisk();
+                Map<String, String> state;
+                synchronized (values) {
+                    state = new HashMap<>(values);
+                }
+                listener.onLoaded(state);
+            } finally {
+                loaded.countDown();
+            }
+            Log.d(TAG, "State loaded in " + (System.currentTimeMillis() - start) + "ms");
+        });
+    }
+
+    /**
+     * Blocks until the preload has finished. Returns immediately once it has.
+     */
+    void awaitLoaded() {
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Applies the changes in memory and schedules a flush. Null values remove the key.
+     */
+    void putAll(Map<String, String> changes) {
+        awaitLoaded();
+        synchronized (values) {
+            for (Map.Entry<String, String> change : changes.entrySet()) {
+                if (change.getValue() != null) {
+                    values.put(change.getKey(), change.getValue());
+                } else {
+                    values.remove(change.getKey());
+                }
+            }
+        }
+        markDirty();
+    }
+
+    void clear() {
+        awaitLoaded();
+        synchronized (values) {
+            values.clear();
+        }
+        markDirty();
+    }
+
+    /**
+     * Writes pending changes now rather than after the coalescing window, e.g. when the app
+     * goes to the background.
+     */
+    void flush() {
+        io.execute(this::writeToDisk);
+    }
+
+    /**
+     * Flushes pending changes and stops the store's thread.
+     */
+    void shutdown() {
+        flush();
+        io.shutdown();
+    }
+
+    /**
+     * Number of writes requested by callers, and the number of times the file was actually
+     * written. The difference is what write-behind coalescing saved.
+     */
+    long getWriteRequestCount() {
+        return writeRequests.get();
+    }
+
+    long getDiskWriteCount() {
+        return diskWrites.get();
+    }
+
+    private void markDirty() {
+        writeRequests.incrementAndGet();
+        synchronized (values) {
+            dirty = true;
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        io.schedule(this::writeToDisk, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void writeToDisk() {
+        String contents;
+        synchronized (values) {
+            flushScheduled = false;
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            contents = new JSONObject(values).toString();
+        }
+
+        FileOutputStream out = null;
+        try {
+            out = file.startWrite();
+            out.write(contents.getBytes(StandardCharsets.UTF_8));
+            file.finishWrite(out);
+            diskWrites.incrementAndGet();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write auth state", e);
+            if (out != null) {
+                file.failWrite(out);
+            }
+            // Try again with the next change
+            synchronized (values) {
+                dirty = true;
+            }
+        }
+    }
+
+    private void readFromDisk() {
+        try {
+            JSONObject json = new JSONObject(new String(file.readFully(), StandardCharsets.UTF_8));
+            synchronized (values) {
+                Iterator<String> keys = json.keys();
+                while (keys.hasNext()) {
+                    String key = keys.next();
+                    values.put(key, json.optString(key, null));
+                }
+            }
+        } catch (FileNotFoundException e) {
+            migrateLegacyPrefs();
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "Discarding unreadable auth state", e);
+        }
+    }
+
+    /**
+     * Moves state saved by earlier plugin versions out of SharedPreferences.
+     */
+    private void migrateLegacyPrefs() {
+        SharedPreferences prefs = context.getSharedPreferences(legacyPrefsName, Context.MODE_PRIVATE);
+        Map<String, ?> legacy = prefs.getAll();
+        if (legacy.isEmpty()) {
+            return;
+        }
+
+        synchronized (values) {
+            for (Map.Entry<String, ?> entry : legacy.entrySet()) {
+                if (entry.getValue() instanceof String) {
+                    values.put(entry.getKey(), (String) entry.getValue());
+                }
+            }
+            dirty = true;
+        }
+        writeToDisk();
+        prefs.edit().clear().apply();
+        Log.d(TAG, "Migrated " + legacy.size() + " values from SharedPreferences");
+    }
+}
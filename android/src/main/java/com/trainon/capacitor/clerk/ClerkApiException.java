@@ -0,0 +1,20 @@
+package com.trainon.capacitor.clerk;
+
+import java.io.IOException;
+
+/**
+ * A non-2xx response from Clerk's Frontend API. The message is meant to be passed to JS as is.
+ */
+class ClerkApiException extends IOException {
+
+    private final int statusCode;
+
+    ClerkApiException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,156 @@
+package com.trainon.capacitor.clerk;
+
+import android.util.Log;
+
+import com.getcapacitor.PluginConfig;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dns;
+import okhttp3.EventListener;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Builds the OkHttp client used for the Frontend API and warms it up ahead of the first call.
+ *
+ * All auth calls go to a single host, so the pool only needs a few connections kept alive for
+ * a long time, HTTP/2 lets them share one, and DNS answers are cached in memory. As soon as the
+ * Clerk domain is known, a connection is opened speculatively so the first real request
+ * doesn't pay for DNS, TCP and TLS.
+ *
+ * Settings can be overridden from the plugin config in capacitor.config:
+ * <pre>
+ * plugins: {
+ *   ClerkNative: {
+ *     maxIdleConnections: 2,
+ *     keepAliveSeconds: 300,
+ *     connectTimeoutMs: 10000,
+ *     readTimeoutMs: 15000,
+ *     writeTimeoutMs: 15000,
+ *     dnsCacheTtlSeconds: 300,
+ *     preferHttp2: true,
+ *     prewarmConnection: true
+ *   }
+ * }
+ * </pre>
+ */
+final class ClerkHttpTransport {
+
+    private static final String TAG = "ClerkHttpTransport";
+
+    private final OkHttpClient client;
+    private final boolean prewarmEnabled;
+    private volatile String prewarmedUrl;
+
+    ClerkHttpTransport(PluginConfig config, EventListener.Factory eventListenerFactory, Interceptor responseObserver) {
+        int maxIdleConnections = config.getInt("maxIdleConnections", 2);
+        int keepAliveSeconds = config.getInt("keepAliveSeconds", 300);
+        int connectTimeoutMs = config.getInt("connectTimeoutMs", 10_000);
+        int readTimeoutMs = config.getInt("readTimeoutMs", 15_000);
+        int writeTimeoutMs = config.getInt("writeTimeoutMs", 15_000);
+        int dnsCacheTtlSeconds = config.getInt("dnsCacheTtlSeconds", 300);
+        boolean preferHttp2 = config.getBoolean("preferHttp2", true);
+        prewarmEnabled = config.getBoolean("prewarmConnection", true);
+
+        CachingDns dns = new CachingDns(TimeUnit.SECONDS.toMillis(dnsCacheTtlSeconds));
+
+        List<Protocol> protocols = preferHttp2
+            ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+            : Arrays.asList(Protocol.HTTP_1_1);
+
+        client = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+            .protocols(protocols)
+            .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+            .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+            .writeTimeout(writeTimeoutMs, TimeUnit.MILLISECONDS)
+            .dns(dns)
+            .eventListenerFactory(eventListenerFactory)
+            .addInterceptor(responseObserver)
+            .build();
+    }
+
+    OkHttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * Resolves the host and opens a pooled connection to it in the background. Only the first
+     * call per base URL does anything.
+     */
+    void prewarm(String baseUrl) {
+        if (!prewarmEnabled || baseUrl.equals(prewarmedUrl)) {
+            return;
+        }
+        prewarmedUrl = baseUrl;
+
+        // Any response, even an error, leaves a warm connection in the pool
+        Request request = new Request.Builder()
+            .url(baseUrl + "/v1/environment")
+            .head()
+            .build();
+
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.d(TAG, "Connection prewarm failed: " + e.getMessage());
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                Log.d(TAG, "Connection prewarmed: " + response.code());
+                response.close();
+            }
+        });
+    }
+
+    /**
+     * System DNS with an in-memory cache, so repeated lookups of the Clerk domain don't each
+     * wait on the resolver.
+     */
+    static final class CachingDns implements Dns {
+
+        private static final class Entry {
+            final List<InetAddress> addresses;
+            final long expiresAtMs;
+
+            Entry(List<InetAddress> addresses, long expiresAtMs) {
+                this.addresses = addresses;
+                this.expiresAtMs = expiresAtMs;
+            }
+        }
+
+        private final long ttlMs;
+        private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+
+        CachingDns(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+
+        @Override
+        public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+            long now = System.currentTimeMillis();
+            Entry entry = cache.get(hostname);
+            if (entry != null && now < entry.expiresAtMs) {
+                return entry.addresses;
+            }
+
+            List<InetAddress> addresses = Dns.SYSTEM.lookup(hostname);
+            cache.put(hostname, new Entry(addresses, now + ttlMs));
+            return addresses;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.trainon.capacitor.clerk;
+
+import com.getcapacitor.JSObject;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Latency and error counters for the plugin's Clerk calls.
+ *
+ * Network phases come from an OkHttp EventListener attached to every call; parse time,
+ * dispatcher queue wait and depth, and end-to-end bridge call latency are recorded by the
+ * plugin. Everything is kept in fixed-bucket histograms and atomic counters, so recording is
+ * a handful of atomic increments and cheap enough to leave on in production.
+ */
+final class ClerkMetrics {
+
+    // Upper bounds of the histogram buckets, in milliseconds. The last bucket is open-ended.
+    private static final long[] BUCKET_BOUNDS_MS = { 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000 };
+
+    // Clerk resource ids in paths: a known prefix and a 27 character base62 id, e.g.
+    // sess_2P7lyHv4El59xzq8IrUPTolOi08. Path words like sign_ins must not match.
+    private static final Pattern ID_SEGMENT = Pattern.compile(
+        "^(sess|sia|sua|client|user|org|orgmem|orginv|idn|eac|pkey|img)_[A-Za-z0-9]{20,}$");
+
+    /**
+     * A latency histogram.
+     */
+    static final class Histogram {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMs = new AtomicLong();
+        private final AtomicLong maxMs = new AtomicLong();
+
+        void record(long ms) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && ms > BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            totalMs.addAndGet(ms);
+
+            long max = maxMs.get();
+            while (ms > max && !maxMs.compareAndSet(max, ms)) {
+                max = maxMs.get();
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            totalMs.set(0);
+            maxMs.set(0);
+        }
+
+        /**
+         * Upper bound of the bucket holding the given percentile, or the max for the last bucket.
+         */
+        private long percentile(double p) {
+            long total = count.get();
+            if (total == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(total * p);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    return i < BUCKET_BOUNDS_MS.length ? Math.min(BUCKET_BOUNDS_MS[i], maxMs.get()) : maxMs.get();
+                }
+            }
+            return maxMs.get();
+        }
+
+        JSObject toJSObject() {
+            long total = count.get();
+            JSObject result = new JSObject();
+            result.put("count", total);
+            result.put("meanMs", total > 0 ? totalMs.get() / (double) total : 0);
+            result.put("maxMs", maxMs.get());
+            result.put("p50Ms", percentile(0.50));
+            result.put("p90Ms", percentile(0.90));
+            result.put("p99Ms", percentile(0.99));
+            return result;
+        }
+    }
+
+    /**
+     * Latency and outcomes of one endpoint.
+     */
+    static final class EndpointStats {
+
+        final Histogram latency = new Histogram();
+        final AtomicLong failures = new AtomicLong();
+        final Map<Integer, AtomicLong> statusCodes = new ConcurrentHashMap<>();
+
+        void recordStatus(int code) {
+            AtomicLong counter = statusCodes.get(code);
+            if (counter == null) {
+                AtomicLong created = new AtomicLong();
+                counter = statusCodes.putIfAbsent(code, created);
+                if (counter == null) {
+                    counter = created;
+                }
+            }
+            counter.incrementAndGet();
+        }
+
+        JSObject toJSObject() {
+            JSObject statuses = new JSObject();
+            for (Map.Entry<Integer, AtomicLong> entry : statusCodes.entrySet()) {
+                statuses.put(String.valueOf(entry.getKey()), entry.getValue().get());
+            }
+            JSObject result = new JSObject();
+            result.put("latency", latency.toJSObject());
+            result.put("statusCodes", statuses);
+            result.put("failures", failures.get());
+            return result;
+        }
+    }
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final Histogram dns = new Histogram();
+    private final Histogram connect = new Histogram();
+    private final Histogram tls = new Histogram();
+    private final Histogram timeToFirstByte = new Histogram();
+    private final Histogram parse = new Histogram();
+    private final Map<String, Histogram> queueWait = new ConcurrentHashMap<>();
+    private final AtomicLong peakQueueDepth = new AtomicLong();
+    // Plugin method to time from the bridge call to its result, including cached answers
+    private final Map<String, Histogram> calls = new ConcurrentHashMap<>();
+    private volatile long windowStartMs = System.currentTimeMillis();
+
+    /**
+     * Listener factory to install on the OkHttp client.
+     */
+    EventListener.Factory eventListenerFactory() {
+        return call -> new CallListener();
+    }
+
+    void recordParse(long startNanos) {
+        parse.record(elapsedMs(startNanos));
+    }
+
+    void recordQueueWait(String lane, long waitMs) {
+        histogram(queueWait, lane).record(waitMs);
+    }
+
+    /**
+     * Records the number of jobs waiting for a worker, keeping the peak.
+     */
+    void recordQueueDepth(long depth) {
+        long peak = peakQueueDepth.get();
+        while (depth > peak && !peakQueueDepth.compareAndSet(peak, depth)) {
+            peak = peakQueueDepth.get();
+        }
+    }
+
+    void recordCall(String method, long startNanos) {
+        histogram(calls, method != null ? method : "unknown").record(elapsedMs(startNanos));
+    }
+
+    private static Histogram histogram(Map<String, Histogram> histograms, String key) {
+        Histogram histogram = histograms.get(key);
+        if (histogram == null) {
+            Histogram created = new Histogram();
+            histogram = histograms.putIfAbsent(key, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    void reset() {
+        endpoints.clear();
+        dns.reset();
+        connect.reset();
+        tls.reset();
+        timeToFirstByte.reset();
+        parse.reset();
+        queueWait.clear();
+        peakQueueDepth.set(0);
+        calls.clear();
+        windowStartMs = System.currentTimeMillis();
+    }
+
+    JSObject toJSObject() {
+        JSObject endpointsJson = new JSObject();
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+            endpointsJson.put(entry.getKey(), entry.getValue().toJSObject());
+        }
+
+        JSObject phases = new JSObject();
+        phases.put("dns", dns.toJSObject());
+        phases.put("connect", connect.toJSObject());
+        phases.put("tls", tls.toJSObject());
+        phases.put("timeToFirstByte", timeToFirstByte.toJSObject());
+
+        JSObject queueWaitJson = new JSObject();
+        for (Map.Entry<String, Histogram> entry : queueWait.entrySet()) {
+            queueWaitJson.put(entry.getKey(), entry.getValue().toJSObject());
+        }
+
+        JSObject callsJson = new JSObject();
+        for (Map.Entry<String, Histogram> entry : calls.entrySet()) {
+            callsJson.put(entry.getKey(), entry.getValue().toJSObject());
+        }
+
+        JSObject result = new JSObject();
+        result.put("endpoints", endpointsJson);
+        result.put("phases", phases);
+        result.put("parse", parse.toJSObject());
+        result.put("queueWait", queueWaitJson);
+        result.put("peakQueueDepth", peakQueueDepth.get());
+        result.put("calls", callsJson);
+        // Divide counts by this for throughput
+        result.put("windowMs", System.currentTimeMillis() - windowStartMs);
+        return result;
+    }
+
+    private EndpointStats endpoint(Request request) {
+        String key = endpointKey(request);
+        EndpointStats stats = endpoints.get(key);
+        if (stats == null) {
+            EndpointStats created = new EndpointStats();
+            stats = endpoints.putIfAbsent(key, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Method and path with resource ids collapsed, e.g. "POST /v1/client/sign_ins/:id/attempt_first_factor".
+     */
+    static String endpointKey(Request request) {
+        StringBuilder key = new StringBuilder(request.method()).append(' ');
+        for (String segment : request.url().encodedPath().split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            key.append('/').append(ID_SEGMENT.matcher(segment).matches() ? ":id" : segment);
+        }
+        return key.toString();
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Times the phases of a single call.
+     */
+    private final class CallListener extends EventListener {
+
+        private long callStart;
+        private long dnsStart;
+        private long connectStart;
+        private long secureConnectStart;
+        private long requestStart;
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+            dns.record(elapsedMs(dnsStart));
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            tls.record(elapsedMs(secureConnectStart));
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+            connect.record(elapsedMs(connectStart));
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            timeToFirstByte.record(elapsedMs(requestStart));
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            endpoint(call.request()).recordStatus(response.code());
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            endpoint(call.request()).latency.record(elapsedMs(callStart));
+        }
+
+        @Override
+        public void callFailed(Call call, IOException e) {
+            EndpointStats stats = endpoint(call.request());
+            stats.failures.incrementAndGet();
+            stats.latency.record(elapsedMs(callStart));
+        }
+    }
+}
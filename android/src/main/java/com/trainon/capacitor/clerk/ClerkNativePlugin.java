@@ -1,9 +1,13 @@
 package com.trainon.capacitor.clerk;
 
 import android.content.Context;
-import android.content.SharedPreferences;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
 import android.util.Log;
 
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
@@ -15,14 +19,19 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
 
+import okhttp3.Call;
+import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okio.BufferedSource;
 
 /**
  * Android implementation of Clerk Native plugin.
@@ -37,46 +46,272 @@ public class ClerkNativePlugin extends Plugin {
     private static final String PREFS_NAME = "ClerkNativePrefs";
     private static final String PREF_SESSION_TOKEN = "session_token";
     private static final String PREF_CLIENT_TOKEN = "client_token";
+    private static final String PREF_SESSION_ID = "session_id";
+    private static final String PREF_USER = "user";
+    private static final String PREF_SESSIONS = "sessions";
+    private static final String PREF_CLIENT_ETAG = "client_etag";
+    private static final String PREF_CLIENT_LAST_MODIFIED = "client_last_modified";
+    private static final String PREF_CLIENT_HASH = "client_hash";
+    private static final String PREF_JWKS = "jwks";
+    private static final String PREF_JWKS_FETCHED_AT = "jwks_fetched_at";
+    private static final String PREF_CLOCK_OFFSET_MS = "clock_offset_ms";
+    private static final String PREF_CLOCK_SAMPLES = "clock_samples";
+    private static final String EVENT_TOKEN_CHANGED = "tokenChanged";
+    private static final String EVENT_USER_CHANGED = "userChanged";
+    private static final String EVENT_SESSION_ENDED = "sessionEnded";
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private static final int MAX_PARALLEL_REQUESTS = 3;
+    private static final long READ_TIMEOUT_MS = 15_000;
+    private static final long MUTATION_TIMEOUT_MS = 30_000;
+    private static final String GROUP_SIGN_IN = "signIn";
 
+    private ClerkHttpTransport transport;
     private OkHttpClient client;
-    private ExecutorService executor;
-    private String publishableKey;
-    private String clerkDomain;
-    private String clientToken;
-    private String sessionToken;
-    private JSONObject currentUser;
+    private RequestDispatcher dispatcher;
+    private RequestPolicy policy;
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final ClientResourceCache clientCache = new ClientResourceCache();
+    private final ClerkMetrics metrics = new ClerkMetrics();
+    private final ServerClock serverClock = new ServerClock();
+    private volatile String publishableKey;
+    private volatile String clerkDomain;
+    // Overrides https://<clerkDomain>, e.g. to point the plugin at a local mock of the Frontend API
+    private String frontendApiUrl;
+    // Client, active session, token and user, replaced as a whole on every change
+    private final AuthStateRef auth = new AuthStateRef();
+    private TokenManager tokenManager;
+    private AuthStateStore store;
+    private final UserProjectionCache userProjections = new UserProjectionCache();
+    private final ScopedTokenCache scopedTokens = new ScopedTokenCache();
+    private final PreparedSignInCache preparedSignIns = new PreparedSignInCache();
+    private final SessionTokenVerifier verifier = new SessionTokenVerifier();
+    // Set while waiting for connectivity to come back so a failed revalidation can be retried
+    private final Object networkLock = new Object();
+    private ConnectivityManager.NetworkCallback networkCallback;
+    // Background work is held back while the app isn't in the foreground
+    private volatile boolean inForeground = true;
+    private volatile boolean revalidateOnResume;
+
+    // Held while a snapshot is persisted and announced, so that happens in publication order.
+    // Also guards what JS was last told about, so events only go out on actual changes
+    private final Object notifyLock = new Object();
+    private String notifiedSessionId;
+    private String notifiedToken;
+    private ClerkUser notifiedUser;
 
     @Override
     public void load() {
         super.load();
-        client = new OkHttpClient();
-        executor = Executors.newSingleThreadExecutor();
+        transport = new ClerkHttpTransport(getConfig(), metrics.eventListenerFactory(), serverClock.interceptor());
+        frontendApiUrl = getConfig().getString("frontendApiUrl");
+        client = transport.getClient();
+        dispatcher = new RequestDispatcher(Math.max(1, getConfig().getInt("maxParallelRequests", MAX_PARALLEL_REQUESTS)), metrics);
+        policy = new RequestPolicy(getConfig());
+        tokenManager = new TokenManager(auth, serverClock, this::fetchSessionToken, new TokenManager.Listener() {
+            @Override
+            public void onTokenRefreshed(String sessionId, String token) {
+                saveTokens();
+            }
+
+            @Override
+            public void onSessionRejected(String sessionId) {
+                // Ended or revoked elsewhere; /v1/client tells whether the client has another session
+                revalidate();
+            }
+        });
         
-        // Load saved tokens
-        SharedPreferences prefs = getContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        clientToken = prefs.getString(PREF_CLIENT_TOKEN, null);
-        sessionToken = prefs.getString(PREF_SESSION_TOKEN, null);
+        // Read saved state off the main thread; calls that need it wait in ensureStateLoaded()
+        store = new AuthStateStore(getContext(), PREFS_NAME);
+        store.preload(this::restoreState);
+    }
+
+    @Override
+    protected void handleOnResume() {
+        super.handleOnResume();
+        inForeground = true;
+        tokenManager.resume();
+        if (revalidateOnResume) {
+            revalidateOnResume = false;
+            revalidate();
+        }
+    }
+
+    @Override
+    protected void handleOnPause() {
+        inForeground = false;
+        tokenManager.pause();
+        store.flush();
+        super.handleOnPause();
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        unregisterNetworkCallback();
+        tokenManager.shutdown();
+        dispatcher.shutdown();
+        store.shutdown();
+        super.handleOnDestroy();
+    }
+
+    private void restoreState(Map<String, String> state) {
+        String sessionId = state.get(PREF_SESSION_ID);
+        String sessionToken = state.get(PREF_SESSION_TOKEN);
+        SessionIndex sessions = SessionIndex.fromJson(state.get(PREF_SESSIONS));
+        SessionIndex.Entry active = sessions.get(sessionId);
+        ClerkUser user;
+        if (active != null) {
+            user = active.user;
+        } else {
+            // Saved before sessions were indexed: only the active user was kept
+            user = readPersistedUser(state.get(PREF_USER));
+            if (sessionId != null) {
+                sessions = sessions.with(new SessionIndex.Entry(sessionId, null, sessionToken, user));
+            }
+        }
+        // Before anything is judged against Clerk's clock
+        serverClock.restore(parseLong(state.get(PREF_CLOCK_OFFSET_MS)), parseLong(state.get(PREF_CLOCK_SAMPLES)));
+        AuthState restored = AuthState.EMPTY
+            .withClientToken(state.get(PREF_CLIENT_TOKEN))
+            .withSessions(sessions)
+            .withSession(sessionId, sessionToken, user);
+        // Refreshes are scheduled once configure() has run
+        auth.set(restored);
+        clientCache.restore(state.get(PREF_CLIENT_ETAG), state.get(PREF_CLIENT_LAST_MODIFIED));
+        verifier.setJwks(state.get(PREF_JWKS), parseLong(state.get(PREF_JWKS_FETCHED_AT)));
+
+        // The restored state is what load() hands out, so it doesn't count as a change
+        synchronized (notifyLock) {
+            notifiedSessionId = restored.sessionId;
+            notifiedToken = restored.sessionToken;
+            notifiedUser = restored.user;
+        }
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void ensureStateLoaded() {
+        store.awaitLoaded();
+    }
+
+    private ClerkUser readPersistedUser(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return ClerkResponseParser.toUser(new JSONObject(json));
+        } catch (JSONException e) {
+            Log.w(TAG, "Discarding unreadable persisted user", e);
+            return null;
+        }
     }
 
+    /**
+     * Persists the current auth state and announces what changed. The snapshot is read under
+     * the lock, so a thread that lost the race can't write or announce an older one afterwards.
+     */
     private void saveTokens() {
-        SharedPreferences prefs = getContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.putString(PREF_CLIENT_TOKEN, clientToken);
-        editor.putString(PREF_SESSION_TOKEN, sessionToken);
-        editor.apply();
+        synchronized (notifyLock) {
+            AuthState current = auth.get();
+
+            Map<String, String> state = new HashMap<>();
+            state.put(PREF_CLIENT_TOKEN, current.clientToken);
+            state.put(PREF_SESSION_ID, current.sessionId);
+            state.put(PREF_SESSION_TOKEN, current.sessionToken);
+            state.put(PREF_SESSIONS, current.sessions.toJson());
+            // Users are persisted with their sessions now
+            state.put(PREF_USER, null);
+            state.put(PREF_CLIENT_ETAG, clientCache.getEtag());
+            state.put(PREF_CLIENT_LAST_MODIFIED, clientCache.getLastModified());
+            // Body hashes are no longer kept
+            state.put(PREF_CLIENT_HASH, null);
+            state.putAll(sessionIndependentState());
+            store.putAll(state);
+            notifyAuthChanges(current);
+        }
     }
 
     private void clearTokens() {
-        clientToken = null;
-        sessionToken = null;
-        currentUser = null;
-        SharedPreferences prefs = getContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        prefs.edit().clear().apply();
+        auth.set(AuthState.EMPTY);
+        tokenManager.sessionChanged();
+        userProjections.clear();
+        scopedTokens.clear();
+        preparedSignIns.clear();
+        clientCache.clear();
+        synchronized (notifyLock) {
+            store.clear();
+            // Clerk's signing keys and clock outlive the session; the verifier would otherwise
+            // consider its keys current and not write them back for a day
+            store.putAll(sessionIndependentState());
+            notifyAuthChanges(auth.get());
+        }
+    }
+
+    /**
+     * Persisted state that describes the Frontend API rather than the signed-in session.
+     */
+    private Map<String, String> sessionIndependentState() {
+        Map<String, String> state = new HashMap<>();
+        String jwks = verifier.getJwksJson();
+        if (jwks != null) {
+            state.put(PREF_JWKS, jwks);
+            state.put(PREF_JWKS_FETCHED_AT, String.valueOf(verifier.getFetchedAtMs()));
+        }
+        long clockSamples = serverClock.getSampleCount();
+        if (clockSamples > 0) {
+            state.put(PREF_CLOCK_OFFSET_MS, String.valueOf(serverClock.getOffsetMs()));
+            state.put(PREF_CLOCK_SAMPLES, String.valueOf(clockSamples));
+        }
+        return state;
+    }
+
+    /**
+     * Pushes tokenChanged, userChanged and sessionEnded events for whatever changed since the
+     * last call, so the JS side can mirror the auth state instead of polling getToken(). Called
+     * with notifyLock held.
+     */
+    private void notifyAuthChanges(AuthState current) {
+        String sessionId = current.sessionId;
+        String token = current.sessionToken;
+        long expiresAtMs = current.tokenExpiresAtMs;
+        ClerkUser user = current.user;
+
+        // Switching to another session on the client doesn't end the previous one
+        if (notifiedSessionId != null
+            && !notifiedSessionId.equals(sessionId)
+            && !current.sessions.contains(notifiedSessionId)) {
+            JSObject event = new JSObject();
+            event.put("sessionId", notifiedSessionId);
+            notifyListeners(EVENT_SESSION_ENDED, event);
+        }
+        if (!Objects.equals(notifiedToken, token)) {
+            JSObject event = new JSObject();
+            event.put("token", token != null ? token : JSObject.NULL);
+            event.put("expiresAt", expiresAtMs != 0 ? (Object) serverClock.toDeviceTime(expiresAtMs) : JSObject.NULL);
+            notifyListeners(EVENT_TOKEN_CHANGED, event);
+        }
+        if (!Objects.equals(notifiedUser, user)) {
+            notifyListeners(EVENT_USER_CHANGED, buildUserResult(user, 0));
+        }
+        notifiedSessionId = sessionId;
+        notifiedToken = token;
+        notifiedUser = user;
     }
 
     private String getClerkApiUrl(String path) {
-        return "https://" + clerkDomain + path;
+        if (publishableKey == null) {
+            throw new IllegalStateException("Clerk is not configured, call configure() first");
+        }
+        String baseUrl = frontendApiUrl != null ? frontendApiUrl : "https://" + clerkDomain;
+        return baseUrl + path;
     }
 
     private Request.Builder createRequestBuilder(String url) {
@@ -87,6 +322,7 @@ public class ClerkNativePlugin extends Plugin {
             .header("Origin", "https://app.trainonapp.com")  // Spoof origin to match web
             .header("User-Agent", "Mozilla/5.0 (Linux; Android) ClerkNative/1.0");
         
+        String clientToken = auth.get().clientToken;
         if (clientToken != null) {
             builder.header("Cookie", "__client=" + clientToken);
         }
@@ -94,11 +330,105 @@ public class ClerkNativePlugin extends Plugin {
         return builder;
     }
 
+    /**
+     * Creates a call for the request, bound to the dispatcher job running it (if any) so that
+     * it honours the job's deadline and is cancelled with it.
+     */
+    private Call newCall(Request request) throws IOException {
+        RequestDispatcher.Job job = RequestDispatcher.currentJob();
+        return job != null ? job.newCall(client, request) : client.newCall(request);
+    }
+
+    private ClerkResponse parseResponse(BufferedSource source) throws IOException, JSONException {
+        long start = System.nanoTime();
+        try {
+            return ClerkResponseParser.parse(source);
+        } finally {
+            metrics.recordParse(start);
+        }
+    }
+
+    /**
+     * Executes the request under the retry and circuit breaker policy. Only idempotent methods
+     * are retried.
+     */
+    private Response execute(Request request) throws IOException {
+        String method = request.method();
+        boolean idempotent = method.equals("GET") || method.equals("HEAD") || method.equals("DELETE");
+        return policy.execute(request, idempotent, this::newCall);
+    }
+
+    /**
+     * Executor for single-flight work in the given dispatcher lane.
+     */
+    private Executor lane(RequestDispatcher.Priority priority) {
+        return work -> dispatcher.submit(priority, null, READ_TIMEOUT_MS, job -> work.run());
+    }
+
+    /**
+     * Picks up the client id and sessions from a client resource, activating the client's last
+     * active session (the one just created, after a sign-in).
+     */
+    private void applyClient(ClerkResource clientResource) {
+        // The client changed outside of GET /v1/client, so the cached validators no longer apply
+        clientCache.clear();
+        ClerkSession session = clientResource.lastActiveSession();
+        auth.update(current -> {
+            AuthState next = current.withSessions(current.sessions.synced(clientResource.sessions));
+            next = clientResource.id != null ? next.withClientToken(clientResource.id) : next;
+            return session != null ? next.withSession(session.id, session.jwt, session.user) : next;
+        });
+        tokenManager.sessionChanged();
+    }
+
+    /**
+     * Requests a fresh JWT for the session from Clerk's session token endpoint.
+     */
+    private String fetchSessionToken(String sessionId) throws IOException, JSONException {
+        return fetchSessionToken(sessionId, null, null);
+    }
+
+    /**
+     * Requests a JWT for the session, minted from a JWT template and/or for an organization
+     * other than the session's active one when given.
+     */
+    private String fetchSessionToken(String sessionId, String template, String organizationId) throws IOException, JSONException {
+        // Template names are user-supplied, so they go in as encoded path segments
+        HttpUrl.Builder url = HttpUrl.get(getClerkApiUrl("/v1/client/sessions")).newBuilder()
+            .addPathSegment(sessionId)
+            .addPathSegment("tokens");
+        if (template != null) {
+            url.addPathSegment(template);
+        }
+        url.addQueryParameter("_clerk_js_version", "5.117.0");
+
+        JSONObject params = new JSONObject();
+        if (organizationId != null) {
+            params.put("organization_id", organizationId);
+        }
+
+        Request request = createRequestBuilder(url.build().toString())
+            .post(RequestBody.create(params.toString(), JSON))
+            .build();
+
+        // Minting a session token has no side effects, so it is safe to retry despite the POST
+        try (Response response = policy.execute(request, true, this::newCall)) {
+            String body = response.body().string();
+            Log.d(TAG, "Session token response: " + response.code());
+
+            if (!response.isSuccessful()) {
+                throw new ClerkApiException("Failed to refresh session token: " + response.code(), response.code());
+            }
+
+            return new JSONObject(body).optString("jwt", null);
+        }
+    }
+
     @PluginMethod
     public void configure(PluginCall call) {
-        publishableKey = call.getString("publishableKey");
+        String key = call.getString("publishableKey");
         
-        if (publishableKey == null || publishableKey.isEmpty()) {
+        if (key == null || key.isEmpty()) {
             call.reject("Publishable key is required");
             return;
         }
@@ -106,7 +436,7 @@ public class ClerkNativePlugin extends Plugin {
         // Extract domain from publishable key (base64 decode)
         try {
             String decoded = new String(android.util.Base64.decode(
-                publishableKey.replace("pk_live_", "").replace("pk_test_", ""),
+                key.replace("pk_live_", "").replace("pk_test_", ""),
                 android.util.Base64.DEFAULT
             ));
             // Remove trailing $ if present
@@ -117,119 +447,332 @@ public class ClerkNativePlugin extends Plugin {
             clerkDomain = "clerk.trainonapp.com";
             Log.w(TAG, "Could not decode domain from key, using default: " + clerkDomain);
         }
+        publishableKey = key;
+
+        // Get DNS, TCP and TLS out of the way before the first auth call
+        transport.prewarm(getClerkApiUrl(""));
+
+        // Now that requests have somewhere to go, keep the restored session's token fresh
+        ensureStateLoaded();
+        tokenManager.start();
 
         call.resolve();
     }
 
     @PluginMethod
     public void load(PluginCall call) {
-        executor.execute(() -> {
-            try {
-                // First, get or create a client
-                if (clientToken == null) {
-                    createClient(call);
+        long start = System.nanoTime();
+        ensureStateLoaded();
+        AuthState persisted = auth.get();
+        if (persisted.clientToken != null && persisted.user != null) {
+            SessionTokenVerifier.Verification verification =
+                verifier.verify(persisted.sessionToken, serverClock.now());
+            if (verification.status == SessionTokenVerifier.Status.INVALID) {
+                // The token on disk doesn't check out, so neither does the user persisted with it.
+                // Drop the validators too, or a 304 would confirm the state without the user
+                Log.w(TAG, "Persisted session token failed verification, reloading from Clerk");
+                clientCache.clear();
+                auth.compareAndSet(persisted, persisted.withUser(null));
+            } else {
+                // Stale-while-revalidate: answer from disk now, check with Clerk in the background
+                JSObject result = buildUserResult(persisted.user, 0);
+                result.put("stale", true);
+                putVerification(result, verification, persisted);
+                metrics.recordCall("load", start);
+                call.resolve(result);
+                revalidate();
+                return;
+            }
+        }
+
+        // Concurrent load() calls at startup share one client request
+        singleFlight.execute("load", lane(RequestDispatcher.Priority.SESSION), this::loadClient, new SingleFlight.Callback<JSObject>() {
+            @Override
+            public void onSuccess(JSObject result) {
+                result.put("stale", false);
+                metrics.recordCall("load", start);
+                call.resolve(result);
+                refreshJwksIfDue();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Load error", e);
+                metrics.recordCall("load", start);
+                AuthState current = auth.get();
+                if (current.clientToken != null && isTransientFailure(e)) {
+                    // Clerk is unreachable or unhealthy: keep the session we have rather than failing
+                    JSObject result = buildUserResult(current.user, 0);
+                    result.put("stale", true);
+                    putVerification(result, verifier.verify(current.sessionToken, serverClock.now()), current);
+                    call.resolve(result);
+                    revalidateWhenOnline(e);
+                } else if (e instanceof ClerkApiException) {
+                    call.reject(e.getMessage());
                 } else {
-                    // Verify existing session
-                    fetchClientAndUser(call);
+                    call.reject("Failed to load: " + e.getMessage());
                 }
-            } catch (Exception e) {
-                Log.e(TAG, "Load error", e);
-                call.reject("Failed to load: " + e.getMessage());
             }
         });
     }
 
-    private void createClient(PluginCall call) throws IOException, JSONException {
+    /**
+     * Syncs with /v1/client in the background. Anything that differs from what load() already
+     * handed out is pushed to JS by notifyAuthChanges().
+     */
+    private void revalidate() {
+        singleFlight.execute("load", lane(RequestDispatcher.Priority.SESSION), this::loadClient, new SingleFlight.Callback<JSObject>() {
+            @Override
+            public void onSuccess(JSObject result) {
+                refreshJwksIfDue();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // Keep serving the persisted state; the next load() tries again
+                Log.w(TAG, "Background revalidation failed", e);
+                revalidateWhenOnline(e);
+            }
+        });
+    }
+
+    /**
+     * Reports what the persisted token proves about a stale response. authentic means it was
+     * signed by Clerk for this user and session; since Clerk session tokens only live for about
+     * a minute, the one on disk is usually past its exp and only says who it was issued to, at
+     * issuedAt. verified additionally requires it to be unexpired.
+     */
+    private void putVerification(JSObject result, SessionTokenVerifier.Verification verification, AuthState state) {
+        boolean authentic = verification.isAuthentic()
+            && state.user != null
+            && state.user.id != null
+            && state.user.id.equals(verification.subject)
+            && Objects.equals(verification.sessionId, state.sessionId);
+        result.put("authentic", authentic);
+        result.put("verified", authentic && verification.status == SessionTokenVerifier.Status.VALID);
+        result.put("issuedAt", authentic && verification.issuedAtMs != 0
+            ? (Object) serverClock.toDeviceTime(verification.issuedAtMs) : JSObject.NULL);
+    }
+
+    /**
+     * Fetches Clerk's signing keys in the background if the cached set is missing or old.
+     */
+    private void refreshJwksIfDue() {
+        if (!verifier.needsRefresh(System.currentTimeMillis())) {
+            return;
+        }
+        singleFlight.execute("jwks", lane(RequestDispatcher.Priority.SESSION), this::fetchJwks, new SingleFlight.Callback<Void>() {
+            @Override
+            public void onSuccess(Void result) {}
+
+            @Override
+            public void onError(Exception e) {
+                Log.w(TAG, "Could not fetch JWKS", e);
+            }
+        });
+    }
+
+    private Void fetchJwks() throws IOException {
+        Request request = createRequestBuilder(getClerkApiUrl("/.well-known/jwks.json"))
+            .get()
+            .build();
+
+        try (Response response = execute(request)) {
+            if (!response.isSuccessful()) {
+                throw new ClerkApiException("Failed to fetch JWKS: " + response.code(), response.code());
+            }
+            String body = response.body().string();
+            long fetchedAt = System.currentTimeMillis();
+            verifier.setJwks(body, fetchedAt);
+
+            Map<String, String> state = new HashMap<>();
+            state.put(PREF_JWKS, body);
+            state.put(PREF_JWKS_FETCHED_AT, String.valueOf(fetchedAt));
+            store.putAll(state);
+        }
+        return null;
+    }
+
+    /**
+     * If a revalidation failed because the device is offline, retries it once a network
+     * becomes available instead of waiting for the next load().
+     */
+    private void revalidateWhenOnline(Exception e) {
+        if (!(e instanceof IOException) || e instanceof RequestPolicy.CircuitOpenException) {
+            return;
+        }
+        ConnectivityManager connectivity =
+            (ConnectivityManager) getContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivity == null || connectivity.getActiveNetwork() != null) {
+            return;
+        }
+
+        synchronized (networkLock) {
+            if (networkCallback != null) {
+                return;
+            }
+            networkCallback = new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(Network network) {
+                    unregisterNetworkCallback();
+                    if (!inForeground) {
+                        revalidateOnResume = true;
+                        return;
+                    }
+                    Log.d(TAG, "Network is back, revalidating session");
+                    revalidate();
+                }
+            };
+            NetworkRequest request = new NetworkRequest.Builder()
+                .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                .build();
+            try {
+                connectivity.registerNetworkCallback(request, networkCallback);
+            } catch (RuntimeException registerError) {
+                Log.w(TAG, "Could not watch for connectivity", registerError);
+                networkCallback = null;
+            }
+        }
+    }
+
+    private void unregisterNetworkCallback() {
+        ConnectivityManager.NetworkCallback callback;
+        synchronized (networkLock) {
+            callback = networkCallback;
+            networkCallback = null;
+        }
+        if (callback == null) {
+            return;
+        }
+        ConnectivityManager connectivity =
+            (ConnectivityManager) getContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+        try {
+            connectivity.unregisterNetworkCallback(callback);
+        } catch (RuntimeException e) {
+            // Already unregistered
+        }
+    }
+
+    /**
+     * Network errors, an open circuit and 5xx/429 responses, as opposed to Clerk rejecting us.
+     */
+    private static boolean isTransientFailure(Exception e) {
+        if (e instanceof ClerkApiException) {
+            int code = ((ClerkApiException) e).getStatusCode();
+            return code == 429 || code >= 500;
+        }
+        return e instanceof IOException;
+    }
+
+    private JSObject loadClient() throws IOException, JSONException {
+        // First, get or create a client
+        if (auth.get().clientToken == null) {
+            return createClient();
+        }
+        // Verify existing session
+        return fetchClientAndUser();
+    }
+
+    private JSObject createClient() throws IOException, JSONException {
         String url = getClerkApiUrl("/v1/client?_clerk_js_version=5.117.0");
         
         Request request = createRequestBuilder(url)
             .post(RequestBody.create("{}", JSON))
             .build();
 
-        try (Response response = client.newCall(request).execute()) {
-            String body = response.body().string();
+        try (Response response = execute(request)) {
             Log.d(TAG, "Create client response: " + response.code());
             
             if (!response.isSuccessful()) {
-                call.reject("Failed to create client: " + response.code() + " - " + body);
-                return;
+                String body = response.body().string();
+                throw new ClerkApiException("Failed to create client: " + response.code() + " - " + body, response.code());
             }
 
-            JSONObject json = new JSONObject(body);
-            JSONObject responseObj = json.optJSONObject("response");
+            ClerkResource responseObj = parseResponse(response.body().source()).response;
             
             if (responseObj != null) {
-                clientToken = responseObj.optString("id", null);
-                
-                // Check for active session
-                JSONArray sessions = responseObj.optJSONArray("sessions");
-                if (sessions != null && sessions.length() > 0) {
-                    JSONObject session = sessions.getJSONObject(0);
-                    sessionToken = session.optString("last_active_token", null);
-                    currentUser = session.optJSONObject("user");
-                }
-                
+                // Picks up the new client id and any active session
+                applyClient(responseObj);
                 saveTokens();
             }
 
-            JSObject result = new JSObject();
-            if (currentUser != null) {
-                result.put("user", convertUser(currentUser));
-            } else {
-                result.put("user", JSObject.NULL);
-            }
-            call.resolve(result);
+            return buildUserResult();
         }
     }
 
-    private void fetchClientAndUser(PluginCall call) throws IOException, JSONException {
+    private JSObject fetchClientAndUser() throws IOException, JSONException {
         String url = getClerkApiUrl("/v1/client?_clerk_js_version=5.117.0");
         
-        Request request = createRequestBuilder(url)
+        Request request = clientCache.addValidators(createRequestBuilder(url))
             .get()
             .build();
 
-        try (Response response = client.newCall(request).execute()) {
-            String body = response.body().string();
+        try (Response response = policy.executeHedged(request, this::newCall)) {
             Log.d(TAG, "Fetch client response: " + response.code());
+
+            // Not modified since the validators we sent: the state in memory is current
+            if (clientCache.isUnchanged(response)) {
+                Log.d(TAG, "Client unchanged (" + clientCache.getHitCount() + " hits, " + clientCache.getMissCount() + " misses)");
+                return buildUserResult();
+            }
             
-            if (!response.isSuccessful()) {
-                // Token might be invalid, clear and retry
+            if (response.code() == 401) {
+                // The client token is no longer valid, start over with a new client
                 clearTokens();
-                createClient(call);
-                return;
+                return createClient();
             }
 
-            JSONObject json = new JSONObject(body);
-            JSONObject responseObj = json.optJSONObject("response");
-            
-            if (responseObj != null) {
-                // Check for active session
-                JSONArray sessions = responseObj.optJSONArray("sessions");
-                if (sessions != null && sessions.length() > 0) {
-                    JSONObject session = sessions.getJSONObject(0);
-                    JSONObject lastToken = session.optJSONObject("last_active_token");
-                    if (lastToken != null) {
-                        sessionToken = lastToken.optString("jwt", null);
-                    }
-                    currentUser = session.optJSONObject("user");
-                }
-                
-                saveTokens();
+            if (!response.isSuccessful()) {
+                // Anything else (including 5xx that outlasted retries) is not a reason to sign out
+                throw new ClerkApiException("Failed to fetch client: " + response.code(), response.code());
             }
 
-            JSObject result = new JSObject();
-            if (currentUser != null) {
-                result.put("user", convertUser(currentUser));
-            } else {
-                result.put("user", JSObject.NULL);
+            ClerkResource responseObj = parseResponse(response.body().source()).response;
+            if (responseObj == null) {
+                // Clerk no longer knows the client, same as a 401
+                clearTokens();
+                return createClient();
             }
-            call.resolve(result);
+            clientCache.store(response);
+
+            auth.update(current -> {
+                AuthState next = current.withSessions(current.sessions.synced(responseObj.sessions));
+                // Stay on the session chosen locally (see setActiveSession) while the client still has it
+                ClerkSession session = responseObj.findSession(current.sessionId);
+                if (session == null) {
+                    session = responseObj.lastActiveSession();
+                }
+                // No session: signed out elsewhere, so don't keep serving the persisted user
+                return session != null
+                    ? next.withSession(session.id, session.jwt, session.user)
+                    : next.withoutSession();
+            });
+            tokenManager.sessionChanged();
+            
+            saveTokens();
+
+            return buildUserResult();
         }
     }
 
+    private JSObject buildUserResult() {
+        return buildUserResult(auth.get().user, 0);
+    }
+
+    /**
+     * Wraps the memoized projection of the user, with the optional fields given as a
+     * {@link UserProjectionCache} mask.
+     */
+    private JSObject buildUserResult(ClerkUser currentUser, int fields) {
+        JSObject result = new JSObject();
+        JSObject user = userProjections.get(currentUser, fields);
+        result.put("user", user != null ? user : JSObject.NULL);
+        return result;
+    }
+
     @PluginMethod
     public void signInWithPassword(PluginCall call) {
+        ensureStateLoaded();
         String email = call.getString("email");
         String password = call.getString("password");
 
@@ -238,93 +781,60 @@ public class ClerkNativePlugin extends Plugin {
             return;
         }
 
-        executor.execute(() -> {
+        dispatcher.submit(RequestDispatcher.Priority.MUTATION, GROUP_SIGN_IN, MUTATION_TIMEOUT_MS, job -> {
             try {
-                // Step 1: Create sign-in attempt
+                // The sign-in may already have been created by prepareSignIn()
+                String preparedSignInId = preparedSignIns.take(email, auth.get().clientToken, System.currentTimeMillis());
+                if (preparedSignInId != null) {
+                    try {
+                        completeSignIn(call, attemptPassword(preparedSignInId, password).client);
+                        return;
+                    } catch (ClerkApiException e) {
+                        if (e.getStatusCode() != 404) {
+                            call.reject(e.getMessage());
+                            return;
+                        }
+                        // Clerk no longer has the prepared attempt; start over below
+                    }
+                }
+
+                // Fast path: send the password along with the identifier so that Clerk can
+                // complete the sign-in in a single round trip
                 String createUrl = getClerkApiUrl("/v1/client/sign_ins?_clerk_js_version=5.117.0");
                 
                 JSONObject createBody = new JSONObject();
                 createBody.put("identifier", email);
+                createBody.put("strategy", "password");
+                createBody.put("password", password);
                 
                 Request createRequest = createRequestBuilder(createUrl)
                     .post(RequestBody.create(createBody.toString(), JSON))
                     .build();
 
-                String signInId;
-                try (Response response = client.newCall(createRequest).execute()) {
-                    String body = response.body().string();
+                ClerkResponse created;
+                try (Response response = execute(createRequest)) {
                     Log.d(TAG, "Create sign-in response: " + response.code());
                     
                     if (!response.isSuccessful()) {
-                        call.reject("Failed to start sign in: " + body);
+                        call.reject(readSignInError(response.body().string()));
                         return;
                     }
 
-                    JSONObject json = new JSONObject(body);
-                    JSONObject responseObj = json.optJSONObject("response");
-                    signInId = responseObj.optString("id");
-                    
-                    // Update client token from response
-                    JSONObject clientObj = json.optJSONObject("client");
-                    if (clientObj != null) {
-                        clientToken = clientObj.optString("id", clientToken);
-                    }
+                    created = parseResponse(response.body().source());
                 }
 
-                // Step 2: Attempt with password
-                String attemptUrl = getClerkApiUrl("/v1/client/sign_ins/" + signInId + "/attempt_first_factor?_clerk_js_version=5.117.0");
-                
-                JSONObject attemptBody = new JSONObject();
-                attemptBody.put("strategy", "password");
-                attemptBody.put("password", password);
-                
-                Request attemptRequest = createRequestBuilder(attemptUrl)
-                    .post(RequestBody.create(attemptBody.toString(), JSON))
-                    .build();
-
-                try (Response response = client.newCall(attemptRequest).execute()) {
-                    String body = response.body().string();
-                    Log.d(TAG, "Attempt password response: " + response.code());
-                    
-                    if (!response.isSuccessful()) {
-                        JSONObject errorJson = new JSONObject(body);
-                        JSONArray errors = errorJson.optJSONArray("errors");
-                        if (errors != null && errors.length() > 0) {
-                            String message = errors.getJSONObject(0).optString("message", "Sign in failed");
-                            call.reject(message);
-                        } else {
-                            call.reject("Sign in failed: " + body);
-                        }
-                        return;
-                    }
-
-                    JSONObject json = new JSONObject(body);
-                    
-                    // Extract session and user from response
-                    JSONObject clientObj = json.optJSONObject("client");
-                    if (clientObj != null) {
-                        clientToken = clientObj.optString("id", clientToken);
-                        
-                        JSONArray sessions = clientObj.optJSONArray("sessions");
-                        if (sessions != null && sessions.length() > 0) {
-                            JSONObject session = sessions.getJSONObject(0);
-                            JSONObject lastToken = session.optJSONObject("last_active_token");
-                            if (lastToken != null) {
-                                sessionToken = lastToken.optString("jwt", null);
-                            }
-                            currentUser = session.optJSONObject("user");
-                        }
-                    }
-                    
-                    saveTokens();
+                ClerkResource signIn = created.response;
+                if (signIn == null || !"needs_first_factor".equals(signIn.status)) {
+                    completeSignIn(call, created.client);
+                    return;
+                }
 
-                    JSObject result = new JSObject();
-                    if (currentUser != null) {
-                        result.put("user", convertUser(currentUser));
-                    } else {
-                        result.put("user", JSObject.NULL);
-                    }
-                    call.resolve(result);
+                // Clerk wants the first factor attempted separately: fall back to the two-step flow
+                applyClientToken(created.client);
+                try {
+                    completeSignIn(call, attemptPassword(signIn.id, password).client);
+                } catch (ClerkApiException e) {
+                    call.reject(e.getMessage());
                 }
             } catch (Exception e) {
                 Log.e(TAG, "Sign in error", e);
@@ -333,37 +843,204 @@ public class ClerkNativePlugin extends Plugin {
         });
     }
 
+    /**
+     * Attempts the password as first factor of an existing sign-in. Clerk's error message is
+     * thrown as a {@link ClerkApiException}.
+     */
+    private ClerkResponse attemptPassword(String signInId, String password) throws IOException, JSONException {
+        String attemptUrl = getClerkApiUrl("/v1/client/sign_ins/" + signInId + "/attempt_first_factor?_clerk_js_version=5.117.0");
+        
+        JSONObject attemptBody = new JSONObject();
+        attemptBody.put("strategy", "password");
+        attemptBody.put("password", password);
+        
+        Request attemptRequest = createRequestBuilder(attemptUrl)
+            .post(RequestBody.create(attemptBody.toString(), JSON))
+            .build();
+
+        try (Response response = execute(attemptRequest)) {
+            Log.d(TAG, "Attempt password response: " + response.code());
+            
+            if (!response.isSuccessful()) {
+                throw new ClerkApiException(readSignInError(response.body().string()), response.code());
+            }
+
+            return parseResponse(response.body().source());
+        }
+    }
+
+    /**
+     * Creates a sign-in for the identifier and caches it for the flow that follows.
+     */
+    private String createSignIn(String email) throws IOException, JSONException {
+        String createUrl = getClerkApiUrl("/v1/client/sign_ins?_clerk_js_version=5.117.0");
+        
+        JSONObject createBody = new JSONObject();
+        createBody.put("identifier", email);
+        
+        Request request = createRequestBuilder(createUrl)
+            .post(RequestBody.create(createBody.toString(), JSON))
+            .build();
+
+        try (Response response = execute(request)) {
+            Log.d(TAG, "Create sign-in response: " + response.code());
+            
+            if (!response.isSuccessful()) {
+                String body = response.body().string();
+                throw new ClerkApiException("Failed to start sign in: " + body, response.code());
+            }
+
+            ClerkResponse created = parseResponse(response.body().source());
+            applyClientToken(created.client);
+            String signInId = created.response != null ? created.response.id : null;
+            preparedSignIns.put(email, signInId, auth.get().clientToken, System.currentTimeMillis());
+            return signInId;
+        }
+    }
+
+    /**
+     * Picks up the client id from a response, e.g. when Clerk created the client on the fly.
+     */
+    private void applyClientToken(ClerkResource clientObj) {
+        if (clientObj != null && clientObj.id != null) {
+            String clientId = clientObj.id;
+            auth.update(current -> current.withClientToken(clientId));
+        }
+    }
+
+    /**
+     * Picks up the session from the client returned by the final sign-in request and
+     * resolves with the signed-in user.
+     */
+    private void completeSignIn(PluginCall call, ClerkResource clientObj) {
+        preparedSignIns.clear();
+        if (clientObj != null) {
+            applyClient(clientObj);
+        }
+        saveTokens();
+        call.resolve(buildUserResult());
+    }
+
+    /**
+     * The first error message from a failed sign-in response, or the raw body if there is none.
+     */
+    private static String readSignInError(String body) {
+        try {
+            JSONArray errors = new JSONObject(body).optJSONArray("errors");
+            if (errors != null && errors.length() > 0) {
+                return errors.getJSONObject(0).optString("message", "Sign in failed");
+            }
+        } catch (JSONException e) {
+            // Not JSON; report the body as is
+        }
+        return "Sign in failed: " + body;
+    }
+
     @PluginMethod
     public void getUser(PluginCall call) {
-        JSObject result = new JSObject();
-        if (currentUser != null) {
-            try {
-                result.put("user", convertUser(currentUser));
-            } catch (JSONException e) {
-                result.put("user", JSObject.NULL);
-            }
-        } else {
-            result.put("user", JSObject.NULL);
+        long start = System.nanoTime();
+        ensureStateLoaded();
+        int fields = 0;
+        if (call.getBoolean("includePhoneNumbers", false)) {
+            fields |= UserProjectionCache.PHONE_NUMBERS;
+        }
+        if (call.getBoolean("includeOrganizations", false)) {
+            fields |= UserProjectionCache.ORGANIZATIONS;
+        }
+        if (call.getBoolean("includePublicMetadata", false)) {
+            fields |= UserProjectionCache.PUBLIC_METADATA;
         }
+        JSObject result = buildUserResult(auth.get().user, fields);
+        metrics.recordCall("getUser", start);
         call.resolve(result);
     }
 
     @PluginMethod
     public void getToken(PluginCall call) {
+        long start = System.nanoTime();
+        ensureStateLoaded();
+        String template = call.getString("template");
+        String organizationId = call.getString("organizationId");
+        if (template != null || organizationId != null) {
+            getScopedToken(call, template, organizationId, start);
+            return;
+        }
+
+        // Hot path: serve from memory unless the token has actually expired
+        AuthState current = auth.get();
+        if (!tokenManager.needsRefresh(current)) {
+            resolveToken(call, current.sessionToken, start);
+            return;
+        }
+
+        singleFlight.execute("getToken", lane(RequestDispatcher.Priority.TOKEN), () -> tokenManager.refresh(false),
+            tokenCallback(call, "Failed to get token: ", start));
+    }
+
+    /**
+     * Serves a template or organization token from the scoped cache, minting it if missing or
+     * expired. Concurrent requests for the same token share one call to Clerk.
+     */
+    private void getScopedToken(PluginCall call, String template, String organizationId, long startNanos) {
+        String sessionId = auth.get().sessionId;
+        if (sessionId == null) {
+            resolveToken(call, null, startNanos);
+            return;
+        }
+
+        String key = ScopedTokenCache.key(sessionId, template, organizationId);
+        String cached = scopedTokens.getFresh(key, serverClock.now());
+        if (cached != null) {
+            resolveToken(call, cached, startNanos);
+            return;
+        }
+
+        singleFlight.execute("getToken:" + key, lane(RequestDispatcher.Priority.TOKEN), () -> {
+            String token = fetchSessionToken(sessionId, template, organizationId);
+            scopedTokens.put(key, token);
+            return token;
+        }, tokenCallback(call, "Failed to get token: ", startNanos));
+    }
+
+    private void resolveToken(PluginCall call, String token, long startNanos) {
         JSObject result = new JSObject();
-        result.put("token", sessionToken != null ? sessionToken : JSObject.NULL);
+        result.put("token", token != null ? token : JSObject.NULL);
+        AuthState current = auth.get();
+        long expiresAtMs = token == null ? 0
+            : token.equals(current.sessionToken) ? current.tokenExpiresAtMs
+            : TokenManager.decodeExpiry(token);
+        // Reported on the device clock, which is what JS compares it against
+        result.put("expiresAt", expiresAtMs != 0 ? (Object) serverClock.toDeviceTime(expiresAtMs) : JSObject.NULL);
+        metrics.recordCall(call.getMethodName(), startNanos);
         call.resolve(result);
     }
 
+    private SingleFlight.Callback<String> tokenCallback(PluginCall call, String errorPrefix, long startNanos) {
+        return new SingleFlight.Callback<String>() {
+            @Override
+            public void onSuccess(String token) {
+                resolveToken(call, token, startNanos);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Token refresh error", e);
+                metrics.recordCall(call.getMethodName(), startNanos);
+                call.reject(errorPrefix + e.getMessage());
+            }
+        };
+    }
+
     @PluginMethod
     public void signOut(PluginCall call) {
-        if (clientToken == null) {
+        ensureStateLoaded();
+        if (auth.get().clientToken == null) {
             clearTokens();
             call.resolve();
             return;
         }
 
-        executor.execute(() -> {
+        dispatcher.submit(RequestDispatcher.Priority.MUTATION, null, MUTATION_TIMEOUT_MS, job -> {
             try {
                 String url = getClerkApiUrl("/v1/client/sessions?_clerk_js_version=5.117.0");
                 
@@ -371,7 +1048,7 @@ public class ClerkNativePlugin extends Plugin {
                     .delete()
                     .build();
 
-                try (Response response = client.newCall(request).execute()) {
+                try (Response response = execute(request)) {
                     Log.d(TAG, "Sign out response: " + response.code());
                     // Clear tokens regardless of response
                     clearTokens();
@@ -387,6 +1064,7 @@ public class ClerkNativePlugin extends Plugin {
 
     @PluginMethod
     public void signInWithEmail(PluginCall call) {
+        ensureStateLoaded();
         String email = call.getString("email");
 
         if (email == null) {
@@ -394,32 +1072,25 @@ public class ClerkNativePlugin extends Plugin {
             return;
         }
 
-        executor.execute(() -> {
-            try {
-                String createUrl = getClerkApiUrl("/v1/client/sign_ins?_clerk_js_version=5.117.0");
-                
-                JSONObject createBody = new JSONObject();
-                createBody.put("identifier", email);
-                
-                Request request = createRequestBuilder(createUrl)
-                    .post(RequestBody.create(createBody.toString(), JSON))
-                    .build();
+        // Already created by prepareSignIn(): nothing left to do until the code flow is implemented
+        if (preparedSignIns.contains(email, auth.get().clientToken, System.currentTimeMillis())) {
+            JSObject result = new JSObject();
+            result.put("requiresCode", true);
+            call.resolve(result);
+            return;
+        }
 
-                try (Response response = client.newCall(request).execute()) {
-                    String body = response.body().string();
-                    Log.d(TAG, "Sign in with email response: " + response.code());
-                    
-                    if (!response.isSuccessful()) {
-                        call.reject("Failed to start sign in: " + body);
-                        return;
-                    }
+        dispatcher.submit(RequestDispatcher.Priority.MUTATION, GROUP_SIGN_IN, MUTATION_TIMEOUT_MS, job -> {
+            try {
+                createSignIn(email);
 
-                    // TODO: Prepare email code flow
-                    // For now, return that code is required
-                    JSObject result = new JSObject();
-                    result.put("requiresCode", true);
-                    call.resolve(result);
-                }
+                // TODO: Prepare email code flow
+                // For now, return that code is required
+                JSObject result = new JSObject();
+                result.put("requiresCode", true);
+                call.resolve(result);
+            } catch (ClerkApiException e) {
+                call.reject(e.getMessage());
             } catch (Exception e) {
                 Log.e(TAG, "Sign in with email error", e);
                 call.reject("Failed: " + e.getMessage());
@@ -427,6 +1098,40 @@ public class ClerkNativePlugin extends Plugin {
         });
     }
 
+    /**
+     * Creates the sign-in for an identifier ahead of time, e.g. when the email field loses focus,
+     * so that the sign-in that follows only has to attempt the factor.
+     */
+    @PluginMethod
+    public void prepareSignIn(PluginCall call) {
+        ensureStateLoaded();
+        String email = call.getString("email");
+
+        if (email == null) {
+            call.reject("Email is required");
+            return;
+        }
+
+        if (preparedSignIns.contains(email, auth.get().clientToken, System.currentTimeMillis())) {
+            call.resolve();
+            return;
+        }
+
+        singleFlight.execute("prepareSignIn:" + PreparedSignInCache.key(email), lane(RequestDispatcher.Priority.MUTATION),
+            () -> createSignIn(email), new SingleFlight.Callback<String>() {
+                @Override
+                public void onSuccess(String signInId) {
+                    call.resolve();
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    Log.w(TAG, "Could not prepare sign in", e);
+                    call.reject(e instanceof ClerkApiException ? e.getMessage() : "Failed to prepare sign in: " + e.getMessage());
+                }
+            });
+    }
+
     @PluginMethod
     public void verifyEmailCode(PluginCall call) {
         // TODO: Implement email code verification
@@ -435,6 +1140,7 @@ public class ClerkNativePlugin extends Plugin {
 
     @PluginMethod
     public void signUp(PluginCall call) {
+        ensureStateLoaded();
         String email = call.getString("emailAddress");
         String password = call.getString("password");
         String firstName = call.getString("firstName");
@@ -445,7 +1151,7 @@ public class ClerkNativePlugin extends Plugin {
             return;
         }
 
-        executor.execute(() -> {
+        dispatcher.submit(RequestDispatcher.Priority.MUTATION, null, MUTATION_TIMEOUT_MS, job -> {
             try {
                 String url = getClerkApiUrl("/v1/client/sign_ups?_clerk_js_version=5.117.0");
                 
@@ -459,11 +1165,11 @@ public class ClerkNativePlugin extends Plugin {
                     .post(RequestBody.create(body.toString(), JSON))
                     .build();
 
-                try (Response response = client.newCall(request).execute()) {
-                    String responseBody = response.body().string();
+                try (Response response = execute(request)) {
                     Log.d(TAG, "Sign up response: " + response.code());
                     
                     if (!response.isSuccessful()) {
+                        String responseBody = response.body().string();
                         JSONObject errorJson = new JSONObject(responseBody);
                         JSONArray errors = errorJson.optJSONArray("errors");
                         if (errors != null && errors.length() > 0) {
@@ -475,25 +1181,12 @@ public class ClerkNativePlugin extends Plugin {
                         return;
                     }
 
-                    JSONObject json = new JSONObject(responseBody);
-                    
                     // Check if email verification is required
-                    JSONObject responseObj = json.optJSONObject("response");
-                    boolean requiresVerification = false;
-                    if (responseObj != null) {
-                        JSONArray verifications = responseObj.optJSONArray("verifications");
-                        if (verifications != null) {
-                            requiresVerification = true;
-                        }
-                    }
+                    ClerkResource responseObj = parseResponse(response.body().source()).response;
+                    boolean requiresVerification = responseObj != null && responseObj.hasVerifications;
 
-                    JSObject result = new JSObject();
+                    JSObject result = buildUserResult();
                     result.put("requiresVerification", requiresVerification);
-                    if (currentUser != null) {
-                        result.put("user", convertUser(currentUser));
-                    } else {
-                        result.put("user", JSObject.NULL);
-                    }
                     call.resolve(result);
                 }
             } catch (Exception e) {
@@ -524,35 +1217,111 @@ public class ClerkNativePlugin extends Plugin {
     }
 
     @PluginMethod
-    public void refreshSession(PluginCall call) {
-        call.reject("Refresh session not yet implemented on Android");
+    public void listSessions(PluginCall call) {
+        ensureStateLoaded();
+        // One snapshot, so the list and the active session agree
+        AuthState current = auth.get();
+        String activeSessionId = current.sessionId;
+
+        JSArray sessions = new JSArray();
+        for (SessionIndex.Entry entry : current.sessions.list()) {
+            JSObject session = new JSObject();
+            session.put("id", entry.id);
+            session.put("status", entry.status != null ? entry.status : JSObject.NULL);
+            session.put("active", entry.id.equals(activeSessionId));
+            JSObject user = userProjections.get(entry.user, 0);
+            session.put("user", user != null ? user : JSObject.NULL);
+            sessions.put(session);
+        }
+
+        JSObject result = new JSObject();
+        result.put("sessions", sessions);
+        result.put("activeSessionId", activeSessionId != null ? activeSessionId : JSObject.NULL);
+        call.resolve(result);
     }
 
-    private JSObject convertUser(JSONObject clerkUser) throws JSONException {
-        JSObject user = new JSObject();
-        user.put("id", clerkUser.optString("id", null));
-        user.put("firstName", clerkUser.optString("first_name", null));
-        user.put("lastName", clerkUser.optString("last_name", null));
-        user.put("imageUrl", clerkUser.optString("image_url", null));
-        user.put("username", clerkUser.optString("username", null));
-        
-        // Get primary email
-        JSONArray emailAddresses = clerkUser.optJSONArray("email_addresses");
-        if (emailAddresses != null && emailAddresses.length() > 0) {
-            String primaryEmailId = clerkUser.optString("primary_email_address_id", null);
-            for (int i = 0; i < emailAddresses.length(); i++) {
-                JSONObject emailObj = emailAddresses.getJSONObject(i);
-                if (primaryEmailId != null && primaryEmailId.equals(emailObj.optString("id"))) {
-                    user.put("emailAddress", emailObj.optString("email_address", null));
-                    break;
-                }
-            }
-            // Fallback to first email if no primary found
-            if (user.optString("emailAddress", null) == null) {
-                user.put("emailAddress", emailAddresses.getJSONObject(0).optString("email_address", null));
-            }
+    /**
+     * Makes another session on the client the active one. Purely local: the session's last
+     * known token and user are served right away, and the token is refreshed on demand.
+     */
+    @PluginMethod
+    public void setActiveSession(PluginCall call) {
+        ensureStateLoaded();
+        String sessionId = call.getString("sessionId");
+
+        if (sessionId == null) {
+            call.reject("Session id is required");
+            return;
         }
-        
-        return user;
+
+        AuthState outgoing = auth.get();
+        if (!outgoing.sessions.contains(sessionId)) {
+            call.reject("Session not found: " + sessionId);
+            return;
+        }
+
+        if (!sessionId.equals(outgoing.sessionId)) {
+            // The index already holds the outgoing session's token, so switching back doesn't need a refresh
+            auth.update(current -> {
+                SessionIndex.Entry entry = current.sessions.get(sessionId);
+                return entry != null ? current.withSession(entry.id, entry.token, entry.user) : current;
+            });
+            tokenManager.sessionChanged();
+            saveTokens();
+        }
+
+        call.resolve(buildUserResult());
+    }
+
+    @PluginMethod
+    public void getMetrics(PluginCall call) {
+        JSObject result = metrics.toJSObject();
+
+        JSObject clientCacheJson = new JSObject();
+        clientCacheJson.put("hits", clientCache.getHitCount());
+        clientCacheJson.put("misses", clientCache.getMissCount());
+        result.put("clientCache", clientCacheJson);
+
+        JSObject storeJson = new JSObject();
+        storeJson.put("writeRequests", store.getWriteRequestCount());
+        storeJson.put("diskWrites", store.getDiskWriteCount());
+        result.put("store", storeJson);
+
+        JSObject userProjectionJson = new JSObject();
+        userProjectionJson.put("hits", userProjections.getHitCount());
+        userProjectionJson.put("misses", userProjections.getMissCount());
+        result.put("userProjection", userProjectionJson);
+
+        JSObject clockJson = new JSObject();
+        clockJson.put("offsetMs", serverClock.getOffsetMs());
+        clockJson.put("samples", serverClock.getSampleCount());
+        result.put("serverClock", clockJson);
+
+        JSObject dispatcherJson = new JSObject();
+        dispatcherJson.put("queued", dispatcher.getQueuedCount());
+        dispatcherJson.put("active", dispatcher.getActiveCount());
+        result.put("dispatcher", dispatcherJson);
+
+        result.put("coalescedCalls", singleFlight.getCoalescedCount());
+        call.resolve(result);
+    }
+
+    @PluginMethod
+    public void resetMetrics(PluginCall call) {
+        metrics.reset();
+        call.resolve();
+    }
+
+    @PluginMethod
+    public void refreshSession(PluginCall call) {
+        long start = System.nanoTime();
+        ensureStateLoaded();
+        if (auth.get().sessionId == null) {
+            resolveToken(call, null, start);
+            return;
+        }
+
+        singleFlight.execute("refreshSession", lane(RequestDispatcher.Priority.TOKEN), () -> tokenManager.refresh(true),
+            tokenCallback(call, "Failed to refresh session: ", start));
     }
 }
@@ -0,0 +1,59 @@
+package com.trainon.capacitor.clerk;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A resource returned by Clerk's Frontend API: a client, sign-in or sign-up.
+ *
+ * Only the handful of fields the plugin reads are kept; which of them are set depends on the
+ * resource type.
+ */
+final class ClerkResource {
+
+    final String id;
+    final String status;
+    final String lastActiveSessionId;
+    final boolean hasVerifications;
+    final List<ClerkSession> sessions;
+
+    ClerkResource(
+        String id,
+        String status,
+        String lastActiveSessionId,
+        boolean hasVerifications,
+        List<ClerkSession> sessions
+    ) {
+        this.id = id;
+        this.status = status;
+        this.lastActiveSessionId = lastActiveSessionId;
+        this.hasVerifications = hasVerifications;
+        this.sessions = sessions != null ? sessions : Collections.emptyList();
+    }
+
+    /**
+     * The session with the given id, or null if the client doesn't have it.
+     */
+    ClerkSession findSession(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+        for (ClerkSession session : sessions) {
+            if (sessionId.equals(session.id)) {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The client's last active session, falling back to the first one. Null if there is none.
+     */
+    ClerkSession lastActiveSession() {
+        ClerkSession session = findSession(lastActiveSessionId);
+        if (session != null) {
+            return session;
+        }
+        return sessions.isEmpty() ? null : sessions.get(0);
+    }
+}
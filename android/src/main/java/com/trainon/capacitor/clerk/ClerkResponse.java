@@ -0,0 +1,15 @@
+package com.trainon.capacitor.clerk;
+
+/**
+ * The envelope of a Frontend API response: the requested resource plus the updated client.
+ */
+final class ClerkResponse {
+
+    final ClerkResource response;
+    final ClerkResource client;
+
+    ClerkResponse(ClerkResource response, ClerkResource client) {
+        this.response = response;
+        this.client = client;
+    }
+}
@@ -0,0 +1,548 @@
+package com.trainon.capacitor.clerk;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.Log;
+import android.util.MalformedJsonException;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import okio.BufferedSource;
+
+/**
+ * Parses Frontend API responses into typed models.
+ *
+ * Client payloads carry every session, organization membership and piece of metadata of the
+ * user, of which the plugin needs a small subset. The body is read with a pull parser
+ * that skips everything else without materializing it. If the payload doesn't have the shape
+ * we expect, the buffered bytes are parsed again as a JSONObject tree.
+ */
+final class ClerkResponseParser {
+
+    private static final String TAG = "ClerkResponseParser";
+
+    private ClerkResponseParser() {}
+
+    /**
+     * Parses a response envelope ({ "response": ..., "client": ... }) from the body source.
+     */
+    static ClerkResponse parse(BufferedSource source) throws IOException, JSONException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(source.peek().inputStream(), StandardCharsets.UTF_8))) {
+            return readEnvelope(reader);
+        } catch (IllegalStateException | NumberFormatException | MalformedJsonException e) {
+            Log.w(TAG, "Unexpected response shape, falling back to tree parser", e);
+            return parse(new JSONObject(source.readUtf8()));
+        }
+    }
+
+    /**
+     * Builds the same models from an already parsed JSON tree.
+     */
+    static ClerkResponse parse(JSONObject json) throws JSONException {
+        return new ClerkResponse(toResource(json.optJSONObject("response")), toResource(json.optJSONObject("client")));
+    }
+
+    // Streaming
+
+    private static ClerkResponse readEnvelope(JsonReader reader) throws IOException {
+        ClerkResource response = null;
+        ClerkResource client = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("response".equals(name)) {
+                response = readResource(reader);
+            } else if ("client".equals(name)) {
+                client = readResource(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new ClerkResponse(response, client);
+    }
+
+    private static ClerkResource readResource(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        String id = null;
+        String status = null;
+        String lastActiveSessionId = null;
+        boolean hasVerifications = false;
+        List<ClerkSession> sessions = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = nextString(reader);
+                    break;
+                case "status":
+                    status = nextString(reader);
+                    break;
+                case "last_active_session_id":
+                    lastActiveSessionId = nextString(reader);
+                    break;
+                case "verifications":
+                    hasVerifications = reader.peek() == JsonToken.BEGIN_ARRAY;
+                    reader.skipValue();
+                    break;
+                case "sessions":
+                    sessions = readSessions(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new ClerkResource(id, status, lastActiveSessionId, hasVerifications, sessions);
+    }
+
+    private static List<ClerkSession> readSessions(JsonReader reader) throws IOException {
+        List<ClerkSession> sessions = new ArrayList<>();
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return sessions;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            sessions.add(readSession(reader));
+        }
+        reader.endArray();
+        return sessions;
+    }
+
+    private static ClerkSession readSession(JsonReader reader) throws IOException {
+        String id = null;
+        String status = null;
+        String jwt = null;
+        ClerkUser user = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = nextString(reader);
+                    break;
+                case "status":
+                    status = nextString(reader);
+                    break;
+                case "last_active_token":
+                    jwt = readToken(reader);
+                    break;
+                case "user":
+                    user = readUser(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new ClerkSession(id, status, jwt, user);
+    }
+
+    private static String readToken(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        // Usually a token object, but has been seen as a bare string
+        if (token == JsonToken.STRING) {
+            return reader.nextString();
+        }
+
+        String jwt = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("jwt".equals(reader.nextName())) {
+                jwt = nextString(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return jwt;
+    }
+
+    private static ClerkUser readUser(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        String id = null;
+        String firstName = null;
+        String lastName = null;
+        String imageUrl = null;
+        String username = null;
+        String primaryEmailAddressId = null;
+        List<ClerkUser.EmailAddress> emailAddresses = null;
+        String primaryPhoneNumberId = null;
+        List<ClerkUser.PhoneNumber> phoneNumbers = null;
+        List<ClerkUser.OrganizationMembership> organizationMemberships = null;
+        String publicMetadata = null;
+        long updatedAt = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = nextString(reader);
+                    break;
+                case "first_name":
+                    firstName = nextString(reader);
+                    break;
+                case "last_name":
+                    lastName = nextString(reader);
+                    break;
+                case "image_url":
+                    imageUrl = nextString(reader);
+                    break;
+                case "username":
+                    username = nextString(reader);
+                    break;
+                case "primary_email_address_id":
+                    primaryEmailAddressId = nextString(reader);
+                    break;
+                case "email_addresses":
+                    emailAddresses = readEmailAddresses(reader);
+                    break;
+                case "primary_phone_number_id":
+                    primaryPhoneNumberId = nextString(reader);
+                    break;
+                case "phone_numbers":
+                    phoneNumbers = readPhoneNumbers(reader);
+                    break;
+                case "organization_memberships":
+                    organizationMemberships = readOrganizationMemberships(reader);
+                    break;
+                case "public_metadata":
+                    Object metadata = readValue(reader);
+                    publicMetadata = metadata instanceof JSONObject ? metadata.toString() : null;
+                    break;
+                case "updated_at":
+                    updatedAt = nextLong(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new ClerkUser(
+            id,
+            firstName,
+            lastName,
+            imageUrl,
+            username,
+            primaryEmailAddressId,
+            emailAddresses,
+            primaryPhoneNumberId,
+            phoneNumbers,
+            organizationMemberships,
+            publicMetadata,
+            updatedAt
+        );
+    }
+
+    private static List<ClerkUser.EmailAddress> readEmailAddresses(JsonReader reader) throws IOException {
+        List<ClerkUser.EmailAddress> emailAddresses = new ArrayList<>();
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return emailAddresses;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String id = null;
+            String emailAddress = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id":
+                        id = nextString(reader);
+                        break;
+                    case "email_address":
+                        emailAddress = nextString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            emailAddresses.add(new ClerkUser.EmailAddress(id, emailAddress));
+        }
+        reader.endArray();
+        return emailAddresses;
+    }
+
+    private static List<ClerkUser.PhoneNumber> readPhoneNumbers(JsonReader reader) throws IOException {
+        List<ClerkUser.PhoneNumber> phoneNumbers = new ArrayList<>();
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return phoneNumbers;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String id = null;
+            String phoneNumber = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id":
+                        id = nextString(reader);
+                        break;
+                    case "phone_number":
+                        phoneNumber = nextString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            phoneNumbers.add(new ClerkUser.PhoneNumber(id, phoneNumber));
+        }
+        reader.endArray();
+        return phoneNumbers;
+    }
+
+    private static List<ClerkUser.OrganizationMembership> readOrganizationMemberships(JsonReader reader) throws IOException {
+        List<ClerkUser.OrganizationMembership> memberships = new ArrayList<>();
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return memberships;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String id = null;
+            String role = null;
+            String organizationId = null;
+            String organizationName = null;
+            String organizationSlug = null;
+            String organizationImageUrl = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id":
+                        id = nextString(reader);
+                        break;
+                    case "role":
+                        role = nextString(reader);
+                        break;
+                    case "organization":
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                            break;
+                        }
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            switch (reader.nextName()) {
+                                case "id":
+                                    organizationId = nextString(reader);
+                                    break;
+                                case "name":
+                                    organizationName = nextString(reader);
+                                    break;
+                                case "slug":
+                                    organizationSlug = nextString(reader);
+                                    break;
+                                case "image_url":
+                                    organizationImageUrl = nextString(reader);
+                                    break;
+                                default:
+                                    reader.skipValue();
+                            }
+                        }
+                        reader.endObject();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            memberships.add(new ClerkUser.OrganizationMembership(
+                id, role, organizationId, organizationName, organizationSlug, organizationImageUrl));
+        }
+        reader.endArray();
+        return memberships;
+    }
+
+    /**
+     * Reads an arbitrary JSON value (used for metadata, whose shape is up to the app).
+     */
+    private static Object readValue(JsonReader reader) throws IOException {
+        try {
+            switch (reader.peek()) {
+                case BEGIN_OBJECT:
+                    JSONObject object = new JSONObject();
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        object.put(reader.nextName(), readValue(reader));
+                    }
+                    reader.endObject();
+                    return object;
+                case BEGIN_ARRAY:
+                    JSONArray array = new JSONArray();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        array.put(readValue(reader));
+                    }
+                    reader.endArray();
+                    return array;
+                case BOOLEAN:
+                    return reader.nextBoolean();
+                case NUMBER:
+                    String number = reader.nextString();
+                    try {
+                        return Long.parseLong(number);
+                    } catch (NumberFormatException e) {
+                        return Double.parseDouble(number);
+                    }
+                case NULL:
+                    reader.nextNull();
+                    return JSONObject.NULL;
+                default:
+                    return reader.nextString();
+            }
+        } catch (JSONException e) {
+            // Only thrown for non-finite numbers, which JSON can't express anyway
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String nextString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static long nextLong(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return 0;
+        }
+        return reader.nextLong();
+    }
+
+    // Tree fallback
+
+    private static ClerkResource toResource(JSONObject json) throws JSONException {
+        if (json == null) {
+            return null;
+        }
+
+        List<ClerkSession> sessions = new ArrayList<>();
+        JSONArray sessionsJson = json.optJSONArray("sessions");
+        if (sessionsJson != null) {
+            for (int i = 0; i < sessionsJson.length(); i++) {
+                sessions.add(toSession(sessionsJson.getJSONObject(i)));
+            }
+        }
+
+        return new ClerkResource(
+            optString(json, "id"),
+            optString(json, "status"),
+            optString(json, "last_active_session_id"),
+            json.optJSONArray("verifications") != null,
+            sessions
+        );
+    }
+
+    private static ClerkSession toSession(JSONObject json) throws JSONException {
+        String jwt = null;
+        JSONObject lastToken = json.optJSONObject("last_active_token");
+        if (lastToken != null) {
+            jwt = optString(lastToken, "jwt");
+        } else {
+            jwt = optString(json, "last_active_token");
+        }
+        return new ClerkSession(optString(json, "id"), optString(json, "status"), jwt, toUser(json.optJSONObject("user")));
+    }
+
+    static ClerkUser toUser(JSONObject json) throws JSONException {
+        if (json == null) {
+            return null;
+        }
+
+        List<ClerkUser.EmailAddress> emailAddresses = new ArrayList<>();
+        JSONArray emailsJson = json.optJSONArray("email_addresses");
+        if (emailsJson != null) {
+            for (int i = 0; i < emailsJson.length(); i++) {
+                JSONObject emailJson = emailsJson.getJSONObject(i);
+                emailAddresses.add(new ClerkUser.EmailAddress(optString(emailJson, "id"), optString(emailJson, "email_address")));
+            }
+        }
+
+        List<ClerkUser.PhoneNumber> phoneNumbers = new ArrayList<>();
+        JSONArray phonesJson = json.optJSONArray("phone_numbers");
+        if (phonesJson != null) {
+            for (int i = 0; i < phonesJson.length(); i++) {
+                JSONObject phoneJson = phonesJson.getJSONObject(i);
+                phoneNumbers.add(new ClerkUser.PhoneNumber(optString(phoneJson, "id"), optString(phoneJson, "phone_number")));
+            }
+        }
+
+        List<ClerkUser.OrganizationMembership> memberships = new ArrayList<>();
+        JSONArray membershipsJson = json.optJSONArray("organization_memberships");
+        if (membershipsJson != null) {
+            for (int i = 0; i < membershipsJson.length(); i++) {
+                JSONObject membershipJson = membershipsJson.getJSONObject(i);
+                JSONObject organization = membershipJson.optJSONObject("organization");
+                if (organization == null) {
+                    organization = new JSONObject();
+                }
+                memberships.add(new ClerkUser.OrganizationMembership(
+                    optString(membershipJson, "id"),
+                    optString(membershipJson, "role"),
+                    optString(organization, "id"),
+                    optString(organization, "name"),
+                    optString(organization, "slug"),
+                    optString(organization, "image_url")
+                ));
+            }
+        }
+
+        JSONObject publicMetadata = json.optJSONObject("public_metadata");
+
+        return new ClerkUser(
+            optString(json, "id"),
+            optString(json, "first_name"),
+            optString(json, "last_name"),
+            optString(json, "image_url"),
+            optString(json, "username"),
+            optString(json, "primary_email_address_id"),
+            emailAddresses,
+            optString(json, "primary_phone_number_id"),
+            phoneNumbers,
+            memberships,
+            publicMetadata != null ? publicMetadata.toString() : null,
+            json.optLong("updated_at", 0)
+        );
+    }
+
+    // optString() turns JSON null into "null"
+    private static String optString(JSONObject json, String name) {
+        return json.isNull(name) ? null : json.optString(name, null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.trainon.capacitor.clerk;
+
+/**
+ * A session from a Clerk client object.
+ */
+final class ClerkSession {
+
+    final String id;
+    final String status;
+    final String jwt;
+    final ClerkUser user;
+
+    ClerkSession(String id, String status, String jwt, ClerkUser user) {
+        this.id = id;
+        this.status = status;
+        this.jwt = jwt;
+        this.user = user;
+    }
+}
@@ -0,0 +1,257 @@
+package com.trainon.capacitor.clerk;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The fields of a Clerk user object that the plugin exposes to JS.
+ */
+final class ClerkUser {
+
+    static final class EmailAddress {
+        final String id;
+        final String emailAddress;
+
+        EmailAddress(String id, String emailAddress) {
+            this.id = id;
+            this.emailAddress = emailAddress;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof EmailAddress)) return false;
+            EmailAddress other = (EmailAddress) o;
+            return Objects.equals(id, other.id) && Objects.equals(emailAddress, other.emailAddress);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, emailAddress);
+        }
+    }
+
+    static final class PhoneNumber {
+        final String id;
+        final String phoneNumber;
+
+        PhoneNumber(String id, String phoneNumber) {
+            this.id = id;
+            this.phoneNumber = phoneNumber;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PhoneNumber)) return false;
+            PhoneNumber other = (PhoneNumber) o;
+            return Objects.equals(id, other.id) && Objects.equals(phoneNumber, other.phoneNumber);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, phoneNumber);
+        }
+    }
+
+    static final class OrganizationMembership {
+        final String id;
+        final String role;
+        final String organizationId;
+        final String organizationName;
+        final String organizationSlug;
+        final String organizationImageUrl;
+
+        OrganizationMembership(
+            String id,
+            String role,
+            String organizationId,
+            String organizationName,
+            String organizationSlug,
+            String organizationImageUrl
+        ) {
+            this.id = id;
+            this.role = role;
+            this.organizationId = organizationId;
+            this.organizationName = organizationName;
+            this.organizationSlug = organizationSlug;
+            this.organizationImageUrl = organizationImageUrl;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof OrganizationMembership)) return false;
+            OrganizationMembership other = (OrganizationMembership) o;
+            return Objects.equals(id, other.id)
+                && Objects.equals(role, other.role)
+                && Objects.equals(organizationId, other.organizationId)
+                && Objects.equals(organizationName, other.organizationName)
+                && Objects.equals(organizationSlug, other.organizationSlug)
+                && Objects.equals(organizationImageUrl, other.organizationImageUrl);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, organizationId);
+        }
+    }
+
+    final String id;
+    final String firstName;
+    final String lastName;
+    final String imageUrl;
+    final String username;
+    final String primaryEmailAddressId;
+    final List<EmailAddress> emailAddresses;
+    final String primaryPhoneNumberId;
+    final List<PhoneNumber> phoneNumbers;
+    final List<OrganizationMembership> organizationMemberships;
+    // Kept as serialized JSON so the user stays immutable
+    final String publicMetadata;
+    final long updatedAt;
+
+    ClerkUser(
+        String id,
+        String firstName,
+        String lastName,
+        String imageUrl,
+        String username,
+        String primaryEmailAddressId,
+        List<EmailAddress> emailAddresses,
+        String primaryPhoneNumberId,
+        List<PhoneNumber> phoneNumbers,
+        List<OrganizationMembership> organizationMemberships,
+        String publicMetadata,
+        long updatedAt
+    ) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.imageUrl = imageUrl;
+        this.username = username;
+        this.primaryEmailAddressId = primaryEmailAddressId;
+        this.emailAddresses = emailAddresses != null ? emailAddresses : Collections.emptyList();
+        this.primaryPhoneNumberId = primaryPhoneNumberId;
+        this.phoneNumbers = phoneNumbers != null ? phoneNumbers : Collections.emptyList();
+        this.organizationMemberships = organizationMemberships != null ? organizationMemberships : Collections.emptyList();
+        this.publicMetadata = publicMetadata;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * The primary email address, falling back to the first one if no primary is set.
+     */
+    String getPrimaryEmailAddress() {
+        if (emailAddresses.isEmpty()) {
+            return null;
+        }
+        if (primaryEmailAddressId != null) {
+            for (EmailAddress email : emailAddresses) {
+                if (primaryEmailAddressId.equals(email.id)) {
+                    return email.emailAddress;
+                }
+            }
+        }
+        return emailAddresses.get(0).emailAddress;
+    }
+
+    /**
+     * The basic profile fields. Phone numbers, organizations and metadata are only projected
+     * on request, see {@link UserProjectionCache}.
+     */
+    JSObject toJSObject() {
+        JSObject user = new JSObject();
+        user.put("id", id);
+        user.put("firstName", firstName);
+        user.put("lastName", lastName);
+        user.put("imageUrl", imageUrl);
+        user.put("username", username);
+        String emailAddress = getPrimaryEmailAddress();
+        if (emailAddress != null) {
+            user.put("emailAddress", emailAddress);
+        }
+        return user;
+    }
+
+    /**
+     * Serializes back to Clerk's field names, so a persisted user can be read with the same
+     * parser as an API response.
+     */
+    JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("id", id);
+        json.put("first_name", firstName);
+        json.put("last_name", lastName);
+        json.put("image_url", imageUrl);
+        json.put("username", username);
+        json.put("primary_email_address_id", primaryEmailAddressId);
+        JSONArray emails = new JSONArray();
+        for (EmailAddress email : emailAddresses) {
+            JSONObject emailJson = new JSONObject();
+            emailJson.put("id", email.id);
+            emailJson.put("email_address", email.emailAddress);
+            emails.put(emailJson);
+        }
+        json.put("email_addresses", emails);
+        json.put("primary_phone_number_id", primaryPhoneNumberId);
+        JSONArray phones = new JSONArray();
+        for (PhoneNumber phone : phoneNumbers) {
+            JSONObject phoneJson = new JSONObject();
+            phoneJson.put("id", phone.id);
+            phoneJson.put("phone_number", phone.phoneNumber);
+            phones.put(phoneJson);
+        }
+        json.put("phone_numbers", phones);
+        JSONArray memberships = new JSONArray();
+        for (OrganizationMembership membership : organizationMemberships) {
+            JSONObject organization = new JSONObject();
+            organization.put("id", membership.organizationId);
+            organization.put("name", membership.organizationName);
+            organization.put("slug", membership.organizationSlug);
+            organization.put("image_url", membership.organizationImageUrl);
+            JSONObject membershipJson = new JSONObject();
+            membershipJson.put("id", membership.id);
+            membershipJson.put("role", membership.role);
+            membershipJson.put("organization", organization);
+            memberships.put(membershipJson);
+        }
+        json.put("organization_memberships", memberships);
+        if (publicMetadata != null) {
+            json.put("public_metadata", new JSONObject(publicMetadata));
+        }
+        json.put("updated_at", updatedAt);
+        return json;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ClerkUser)) return false;
+        ClerkUser other = (ClerkUser) o;
+        return updatedAt == other.updatedAt
+            && Objects.equals(id, other.id)
+            && Objects.equals(firstName, other.firstName)
+            && Objects.equals(lastName, other.lastName)
+            && Objects.equals(imageUrl, other.imageUrl)
+            && Objects.equals(username, other.username)
+            && Objects.equals(primaryEmailAddressId, other.primaryEmailAddressId)
+            && emailAddresses.equals(other.emailAddresses)
+            && Objects.equals(primaryPhoneNumberId, other.primaryPhoneNumberId)
+            && phoneNumbers.equals(other.phoneNumbers)
+            && organizationMemberships.equals(other.organizationMemberships)
+            && Objects.equals(publicMetadata, other.publicMetadata);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, updatedAt);
+    }
+}
@@ -0,0 +1,80 @@
+package com.trainon.capacitor.clerk;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Validators for the last /v1/client document the plugin applied.
+ *
+ * The client resource rarely changes between loads, so requests carry the ETag and
+ * Last-Modified validators when Clerk sent them. A 304 means the state already in memory is
+ * current and the response doesn't need to be parsed or persisted again. The body itself is
+ * not compared: every GET mints a new last_active_token, so two bodies practically never match.
+ */
+final class ClientResourceCache {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private String etag;
+    private String lastModified;
+
+    synchronized void restore(String etag, String lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    synchronized void clear() {
+        etag = null;
+        lastModified = null;
+    }
+
+    synchronized Request.Builder addValidators(Request.Builder builder) {
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
+        return builder;
+    }
+
+    /**
+     * Checks whether the response repeats the cached document, counting a hit or a miss.
+     */
+    synchronized boolean isUnchanged(Response response) {
+        boolean unchanged = response.code() == 304 && (etag != null || lastModified != null);
+        if (unchanged) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return unchanged;
+    }
+
+    /**
+     * Records the validators of a response whose body was applied.
+     */
+    synchronized void store(Response response) {
+        etag = response.header("ETag");
+        lastModified = response.header("Last-Modified");
+    }
+
+    synchronized String getEtag() {
+        return etag;
+    }
+
+    synchronized String getLastModified() {
+        return lastModified;
+    }
+
+    long getHitCount() {
+        return hits.get();
+    }
+
+    long getMissCount() {
+        return misses.get();
+    }
+}
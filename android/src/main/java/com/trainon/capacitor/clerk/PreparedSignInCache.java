@@ -0,0 +1,70 @@
+package com.trainon.capacitor.clerk;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sign-in attempts created ahead of time by prepareSignIn(), keyed by identifier.
+ *
+ * Creating the sign-in is the first round trip of every sign-in flow. Doing it while the user
+ * is still filling in the form means the submit only has to pay for the factor attempt. Entries
+ * are used at most once and expire well before Clerk abandons the attempt.
+ */
+final class PreparedSignInCache {
+
+    private static final long TTL_MS = 5 * 60 * 1000L;
+
+    private static final class Entry {
+
+        final String signInId;
+        final String clientToken;
+        final long createdAtMs;
+
+        Entry(String signInId, String clientToken, long createdAtMs) {
+            this.signInId = signInId;
+            this.clientToken = clientToken;
+            this.createdAtMs = createdAtMs;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    static String key(String identifier) {
+        return identifier.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * True if an unexpired attempt is cached for the identifier on the given client.
+     */
+    synchronized boolean contains(String identifier, String clientToken, long nowMs) {
+        Entry entry = entries.get(key(identifier));
+        return entry != null && isUsable(entry, clientToken, nowMs);
+    }
+
+    /**
+     * Removes and returns the sign-in id prepared for the identifier, or null if there is none
+     * that is still usable on the given client.
+     */
+    synchronized String take(String identifier, String clientToken, long nowMs) {
+        Entry entry = entries.remove(key(identifier));
+        return entry != null && isUsable(entry, clientToken, nowMs) ? entry.signInId : null;
+    }
+
+    synchronized void put(String identifier, String signInId, String clientToken, long nowMs) {
+        if (signInId != null) {
+            entries.put(key(identifier), new Entry(signInId, clientToken, nowMs));
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    // A sign-in belongs to the client it was created on
+    private static boolean isUsable(Entry entry, String clientToken, long nowMs) {
+        return nowMs - entry.createdAtMs < TTL_MS
+            && entry.clientToken != null
+            && entry.clientToken.equals(clientToken);
+    }
+}
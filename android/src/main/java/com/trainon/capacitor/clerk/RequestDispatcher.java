@@ -0,0 +1,222 @@
+package com.trainon.capacitor.clerk;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+
+/**
+ * Runs Clerk requests on a small pool of worker threads, ordered by priority.
+ *
+ * Token and session reads are taken ahead of account mutations, so a slow sign-up can't hold
+ * up getToken(). Every job has a deadline that is applied to the OkHttp calls it makes, and a
+ * job can be superseded: submitting a new job in the same group cancels the calls of the one
+ * it replaces.
+ */
+final class RequestDispatcher {
+
+    /**
+     * Lanes in the order they are served.
+     */
+    enum Priority {
+        TOKEN,
+        SESSION,
+        MUTATION
+    }
+
+    interface Work {
+        void run(Job job);
+    }
+
+    /**
+     * Thrown when a job was superseded or ran out of time before it could make a call.
+     */
+    static final class JobCancelledException extends IOException {
+        JobCancelledException(String message) {
+            super(message);
+        }
+    }
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final ThreadLocal<Job> CURRENT_JOB = new ThreadLocal<>();
+
+    private final ThreadPoolExecutor executor;
+    private final ClerkMetrics metrics;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Job> activeByGroup = new HashMap<>();
+
+    RequestDispatcher(int parallelism, ClerkMetrics metrics) {
+        this.metrics = metrics;
+        executor = new ThreadPoolExecutor(
+            parallelism,
+            parallelism,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new PriorityBlockingQueue<>()
+        );
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues work in the given lane. If a group is given, any job still running or queued in
+     * that group is cancelled in favour of this one.
+     */
+    Job submit(Priority priority, String group, long timeoutMs, Work work) {
+        Job job = new Job(priority, group, System.currentTimeMillis() + timeoutMs, sequence.getAndIncrement(), work);
+
+        if (group != null) {
+            Job previous;
+            synchronized (activeByGroup) {
+                previous = activeByGroup.put(group, job);
+            }
+            if (previous != null) {
+                previous.cancel();
+            }
+        }
+
+        executor.execute(job);
+        metrics.recordQueueDepth(executor.getQueue().size());
+        return job;
+    }
+
+    /**
+     * Jobs waiting for a worker right now.
+     */
+    int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Jobs running right now.
+     */
+    int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * The job running on the calling thread, or null outside the dispatcher.
+     */
+    static Job currentJob() {
+        return CURRENT_JOB.get();
+    }
+
+    /**
+     * Cancels everything in flight and stops accepting work.
+     */
+    void shutdown() {
+        synchronized (activeByGroup) {
+            for (Job job : activeByGroup.values()) {
+                job.cancel();
+            }
+            activeByGroup.clear();
+        }
+        executor.shutdownNow();
+    }
+
+    private void finished(Job job) {
+        if (job.group == null) {
+            return;
+        }
+        synchronized (activeByGroup) {
+            if (activeByGroup.get(job.group) == job) {
+                activeByGroup.remove(job.group);
+            }
+        }
+    }
+
+    /**
+     * A unit of work and the OkHttp calls it has made.
+     */
+    final class Job implements Runnable, Comparable<Job> {
+
+        private final Priority priority;
+        private final String group;
+        private final long deadlineMs;
+        private final long seq;
+        private final Work work;
+        private final long enqueuedAtMs = System.currentTimeMillis();
+        private final List<Call> calls = new ArrayList<>();
+        private boolean cancelled;
+
+        private Job(Priority priority, String group, long deadlineMs, long seq, Work work) {
+            this.priority = priority;
+            this.group = group;
+            this.deadlineMs = deadlineMs;
+            this.seq = seq;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            metrics.recordQueueWait(priority.name(), System.currentTimeMillis() - enqueuedAtMs);
+            CURRENT_JOB.set(this);
+            try {
+                work.run(this);
+            } finally {
+                CURRENT_JOB.remove();
+                finished(this);
+            }
+        }
+
+        /**
+         * Creates a call tied to this job: it is bounded by the job's remaining time and is
+         * cancelled along with the job.
+         */
+        Call newCall(OkHttpClient client, Request request) throws IOException {
+            long remainingMs = getRemainingMs();
+            if (remainingMs <= 0) {
+                throw new JobCancelledException("Request deadline exceeded");
+            }
+
+            Call call = client.newCall(request);
+            call.timeout().timeout(remainingMs, TimeUnit.MILLISECONDS);
+            synchronized (this) {
+                if (cancelled) {
+                    throw new JobCancelledException("Request was superseded by a newer one");
+                }
+                calls.add(call);
+            }
+            return call;
+        }
+
+        /**
+         * Time left until the job's deadline, zero or negative once it has passed.
+         */
+        long getRemainingMs() {
+            return deadlineMs - System.currentTimeMillis();
+        }
+
+        void cancel() {
+            List<Call> toCancel;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                toCancel = new ArrayList<>(calls);
+            }
+            for (Call call : toCancel) {
+                call.cancel();
+            }
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            int byPriority = priority.compareTo(other.priority);
+            if (byPriority != 0) {
+                return byPriority;
+            }
+            return Long.compare(seq, other.seq);
+        }
+    }
+}
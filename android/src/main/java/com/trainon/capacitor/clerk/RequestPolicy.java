@@ -0,0 +1,309 @@
+package com.trainon.capacitor.clerk;
+
+import android.util.Log;
+
+import com.getcapacitor.PluginConfig;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Retry, circuit breaker and hedging policy applied to every Clerk call.
+ *
+ * Transient failures (I/O errors, 429 and 5xx) of idempotent requests are retried with
+ * full-jitter exponential backoff. Consecutive transient failures open the circuit, after which
+ * calls fail fast with {@link CircuitOpenException} until a cool-down has passed and a trial
+ * call succeeds; the plugin serves its cached state in the meantime. GETs of the client can
+ * optionally be hedged: if the first attempt hasn't answered after a delay, a second one is
+ * sent and whichever answers first wins.
+ *
+ * Settings can be overridden from the plugin config in capacitor.config:
+ * <pre>
+ * plugins: {
+ *   ClerkNative: {
+ *     maxRetries: 2,
+ *     retryBaseDelayMs: 200,
+ *     retryMaxDelayMs: 2000,
+ *     circuitFailureThreshold: 5,
+ *     circuitOpenMs: 30000,
+ *     hedgeClientFetch: false,
+ *     hedgeDelayMs: 800
+ *   }
+ * }
+ * </pre>
+ */
+final class RequestPolicy {
+
+    /**
+     * Creates the call for one attempt, bound to whatever job is running it.
+     */
+    interface CallFactory {
+        Call newCall(Request request) throws IOException;
+    }
+
+    /**
+     * Thrown instead of making a call while Clerk is considered unhealthy.
+     */
+    static final class CircuitOpenException extends IOException {
+        CircuitOpenException() {
+            super("Clerk is temporarily unavailable");
+        }
+    }
+
+    private static final String TAG = "ClerkRequestPolicy";
+
+    private final int maxRetries;
+    private final long retryBaseDelayMs;
+    private final long retryMaxDelayMs;
+    private final int circuitFailureThreshold;
+    private final long circuitOpenMs;
+    private final boolean hedgeClientFetch;
+    private final long hedgeDelayMs;
+    private final Random random = new Random();
+
+    private int consecutiveFailures;
+    private long openUntilMs;
+    private boolean trialInFlight;
+
+    RequestPolicy(PluginConfig config) {
+        maxRetries = config.getInt("maxRetries", 2);
+        retryBaseDelayMs = config.getInt("retryBaseDelayMs", 200);
+        retryMaxDelayMs = config.getInt("retryMaxDelayMs", 2000);
+        circuitFailureThreshold = config.getInt("circuitFailureThreshold", 5);
+        circuitOpenMs = config.getInt("circuitOpenMs", 30_000);
+        hedgeClientFetch = config.getBoolean("hedgeClientFetch", false);
+        hedgeDelayMs = config.getInt("hedgeDelayMs", 800);
+    }
+
+    /**
+     * Executes the request under the policy. Non-idempotent requests get a single attempt.
+     * The returned response may still be a non-2xx the caller has to handle.
+     */
+    Response execute(Request request, boolean idempotent, CallFactory factory) throws IOException {
+        return execute(request, idempotent, false, factory);
+    }
+
+    /**
+     * Like {@link #execute(Request, boolean, CallFactory)}, hedging each attempt if enabled.
+     * Only for idempotent reads.
+     */
+    Response executeHedged(Request request, CallFactory factory) throws IOException {
+        return execute(request, true, hedgeClientFetch, factory);
+    }
+
+    private Response execute(Request request, boolean idempotent, boolean hedge, CallFactory factory) throws IOException {
+        int attempts = idempotent ? maxRetries + 1 : 1;
+        for (int attempt = 0; ; attempt++) {
+            acquirePermit();
+
+            Call call = null;
+            Response response = null;
+            IOException error = null;
+            try {
+                if (hedge) {
+                    Outcome outcome = executeHedgedAttempt(request, factory);
+                    call = outcome.call;
+                    response = outcome.response;
+                    error = outcome.error;
+                } else {
+                    call = factory.newCall(request);
+                    response = call.execute();
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+
+            if (error != null) {
+                if (isCanceled(error, call) || isOutOfTime()) {
+                    releaseTrial();
+                    throw error;
+                }
+                recordFailure();
+                if (attempt + 1 >= attempts) {
+                    throw error;
+                }
+                Log.d(TAG, "Retrying " + request.method() + " after error: " + error.getMessage());
+                backoff(attempt);
+                continue;
+            }
+
+            if (!isTransient(response.code())) {
+                recordSuccess();
+                return response;
+            }
+
+            recordFailure();
+            if (attempt + 1 >= attempts || isOutOfTime()) {
+                return response;
+            }
+            Log.d(TAG, "Retrying " + request.method() + " after status " + response.code());
+            response.close();
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * Sends the request, and a second copy if the first hasn't answered within the hedge
+     * delay. The first response wins and the other call is cancelled. If both fail, the
+     * outcome is the last failure.
+     */
+    private Outcome executeHedgedAttempt(Request request, CallFactory factory) throws IOException {
+        LinkedBlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        AtomicBoolean decided = new AtomicBoolean();
+
+        Call primary = factory.newCall(request);
+        primary.enqueue(new HedgeCallback(outcomes, decided));
+
+        Call hedge = null;
+        try {
+            Outcome outcome = outcomes.poll(hedgeDelayMs, TimeUnit.MILLISECONDS);
+            int pending = 1;
+            if (outcome == null) {
+                Log.d(TAG, "Hedging " + request.url().encodedPath());
+                hedge = factory.newCall(request);
+                hedge.enqueue(new HedgeCallback(outcomes, decided));
+                pending = 2;
+                outcome = outcomes.take();
+            }
+
+            // If one call failed, give the other a chance to answer
+            while (outcome.error != null && --pending > 0) {
+                outcome = outcomes.take();
+            }
+
+            if (outcome.response == null) {
+                return outcome;
+            }
+            Call loser = outcome.call == primary ? hedge : primary;
+            if (loser != null) {
+                loser.cancel();
+            }
+            return outcome;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primary.cancel();
+            if (hedge != null) {
+                hedge.cancel();
+            }
+            throw new IOException("Interrupted while waiting for hedged request", e);
+        } catch (IOException e) {
+            primary.cancel();
+            throw e;
+        }
+    }
+
+    private static final class Outcome {
+
+        final Call call;
+        final Response response;
+        final IOException error;
+
+        Outcome(Call call, Response response, IOException error) {
+            this.call = call;
+            this.response = response;
+            this.error = error;
+        }
+    }
+
+    private static final class HedgeCallback implements Callback {
+
+        private final LinkedBlockingQueue<Outcome> outcomes;
+        private final AtomicBoolean decided;
+
+        HedgeCallback(LinkedBlockingQueue<Outcome> outcomes, AtomicBoolean decided) {
+            this.outcomes = outcomes;
+            this.decided = decided;
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            outcomes.add(new Outcome(call, null, e));
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            // Only the first response is used; close any later one
+            if (decided.compareAndSet(false, true)) {
+                outcomes.add(new Outcome(call, response, null));
+            } else {
+                response.close();
+            }
+        }
+    }
+
+    private static boolean isTransient(int code) {
+        return code == 429 || code >= 500;
+    }
+
+    // Cancelled, superseded or out of time: retrying can't help and Clerk isn't to blame
+    private static boolean isCanceled(IOException e, Call call) {
+        return e instanceof RequestDispatcher.JobCancelledException
+            || e instanceof CircuitOpenException
+            || (call != null && call.isCanceled());
+    }
+
+    // The dispatcher job running this request has used up its deadline
+    private static boolean isOutOfTime() {
+        RequestDispatcher.Job job = RequestDispatcher.currentJob();
+        return job != null && job.getRemainingMs() <= 0;
+    }
+
+    private void backoff(int attempt) throws IOException {
+        long cap = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(attempt, 16));
+        long delay = (long) (random.nextDouble() * cap);
+        // Don't sleep past the job's deadline; the next attempt then fails fast
+        RequestDispatcher.Job job = RequestDispatcher.currentJob();
+        if (job != null) {
+            delay = Math.max(0, Math.min(delay, job.getRemainingMs()));
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during retry backoff", e);
+        }
+    }
+
+    /**
+     * Fails fast while the circuit is open. Once the cool-down has passed, one trial call is
+     * let through; it closes the circuit on success and re-opens it on failure.
+     */
+    private synchronized void acquirePermit() throws CircuitOpenException {
+        if (consecutiveFailures < circuitFailureThreshold) {
+            return;
+        }
+        if (System.currentTimeMillis() < openUntilMs || trialInFlight) {
+            throw new CircuitOpenException();
+        }
+        trialInFlight = true;
+    }
+
+    private synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        openUntilMs = 0;
+        trialInFlight = false;
+    }
+
+    private synchronized void recordFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (consecutiveFailures >= circuitFailureThreshold) {
+            if (openUntilMs == 0 || System.currentTimeMillis() >= openUntilMs) {
+                Log.w(TAG, "Opening circuit after " + consecutiveFailures + " consecutive failures");
+            }
+            openUntilMs = System.currentTimeMillis() + circuitOpenMs;
+        }
+    }
+
+    private synchronized void releaseTrial() {
+        trialInFlight = false;
+    }
+}
@@ -0,0 +1,67 @@
+package com.trainon.capacitor.clerk;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of JWT-template and organization-scoped session tokens.
+ *
+ * The session's default token is tracked by {@link TokenManager}; tokens minted for a JWT
+ * template or another organization are cached here, keyed by (session, template, organization),
+ * and served until shortly before their exp.
+ */
+final class ScopedTokenCache {
+
+    private static final int MAX_ENTRIES = 16;
+
+    private static final class Entry {
+
+        final String token;
+        final long expiresAtMs;
+
+        Entry(String token, long expiresAtMs) {
+            this.token = token;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    static String key(String sessionId, String template, String organizationId) {
+        return sessionId + "|" + (template != null ? template : "") + "|" + (organizationId != null ? organizationId : "");
+    }
+
+    /**
+     * The cached token if it is still valid, otherwise null. Expired entries are dropped.
+     */
+    synchronized String getFresh(String key, long nowMs) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (nowMs >= entry.expiresAtMs - TokenManager.EXPIRY_MARGIN_MS) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.token;
+    }
+
+    synchronized void put(String key, String token) {
+        long expiresAtMs = TokenManager.decodeExpiry(token);
+        // Tokens without a readable exp can't be cached safely
+        if (expiresAtMs == 0) {
+            entries.remove(key);
+            return;
+        }
+        entries.put(key, new Entry(token, expiresAtMs));
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+}
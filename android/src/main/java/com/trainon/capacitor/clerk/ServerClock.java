@@ -0,0 +1,119 @@
+package com.trainon.capacitor.clerk;
+
+import android.util.Log;
+
+import java.util.Date;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Estimates Clerk's clock from the Date header of its responses.
+ *
+ * Token exp and nbf claims are in Clerk's time, and plenty of devices run minutes off. Every
+ * response yields a sample of the offset between the two clocks, taken against the midpoint of
+ * the request's round trip; samples are smoothed with an exponential moving average. Expiry and
+ * refresh decisions use {@link #now()} instead of the device clock.
+ *
+ * The estimate is persisted with the auth state and restored on launch, so a restored token is
+ * judged against Clerk's clock before the first response of the session comes in.
+ */
+final class ServerClock {
+
+    private static final String TAG = "ClerkServerClock";
+
+    // Weight of a new sample in the moving average
+    private static final double SMOOTHING = 0.2;
+    // Date has one-second resolution; the server's time was somewhere in the following second
+    private static final long DATE_RESOLUTION_MS = 1_000;
+    // Samples from slower round trips than this say too little about the offset
+    private static final long MAX_ROUND_TRIP_MS = 10_000;
+    // A first sample this far off a restored offset means the device clock was changed since
+    private static final long RESTORED_OFFSET_TOLERANCE_MS = 60_000;
+
+    private double offsetMs;
+    private long sampleCount;
+    private boolean restored;
+
+    /**
+     * OkHttp interceptor feeding every response into the estimate.
+     */
+    Interceptor interceptor() {
+        return chain -> {
+            Response response = chain.proceed(chain.request());
+            observe(response);
+            return response;
+        };
+    }
+
+    void observe(Response response) {
+        Date date;
+        try {
+            date = response.headers().getDate("Date");
+        } catch (RuntimeException e) {
+            return;
+        }
+        long sentAtMs = response.sentRequestAtMillis();
+        long receivedAtMs = response.receivedResponseAtMillis();
+        if (date == null || sentAtMs == 0 || receivedAtMs < sentAtMs || receivedAtMs - sentAtMs > MAX_ROUND_TRIP_MS) {
+            return;
+        }
+
+        long serverMs = date.getTime() + DATE_RESOLUTION_MS / 2;
+        long localMs = sentAtMs + (receivedAtMs - sentAtMs) / 2;
+        record(serverMs - localMs);
+    }
+
+    private synchronized void record(long sampleMs) {
+        if (restored && Math.abs(sampleMs - offsetMs) > RESTORED_OFFSET_TOLERANCE_MS) {
+            Log.d(TAG, "Discarding restored clock offset of " + Math.round(offsetMs) + "ms");
+            sampleCount = 0;
+        }
+        restored = false;
+        if (sampleCount == 0) {
+            offsetMs = sampleMs;
+            Log.d(TAG, "Initial clock offset: " + sampleMs + "ms");
+        } else {
+            offsetMs += SMOOTHING * (sampleMs - offsetMs);
+        }
+        sampleCount++;
+    }
+
+    /**
+     * Picks up an estimate persisted by an earlier launch. Ignored once live samples have come
+     * in, since those are more current.
+     */
+    synchronized void restore(long offsetMs, long sampleCount) {
+        if (this.sampleCount > 0 || sampleCount <= 0) {
+            return;
+        }
+        this.offsetMs = offsetMs;
+        this.sampleCount = sampleCount;
+        restored = true;
+    }
+
+    /**
+     * Estimated server minus device time. Zero until the first response or a restored estimate.
+     */
+    synchronized long getOffsetMs() {
+        return Math.round(offsetMs);
+    }
+
+    synchronized long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * The current time on Clerk's clock, as far as we can tell.
+     */
+    long now() {
+        return System.currentTimeMillis() + getOffsetMs();
+    }
+
+    /**
+     * Converts a time on Clerk's clock (such as a token's exp) to the device clock.
+     */
+    long toDeviceTime(long serverTimeMs) {
+        return serverTimeMs - getOffsetMs();
+    }
+}
@@ -0,0 +1,153 @@
+package com.trainon.capacitor.clerk;
+
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every session on the Clerk client, keyed by session id, with the last token and user seen
+ * for each.
+ *
+ * Clerk clients can hold several signed-in accounts at once. Keeping all of them (rather than
+ * just the first) lets the plugin switch between accounts locally, without a new sign-in or a
+ * network round trip. Only the active session's token is kept fresh by {@link TokenManager};
+ * the tokens of the others are whatever was current when they were last active.
+ *
+ * Immutable, and held by {@link AuthState}, so the session list always agrees with the active
+ * session and token it was published with.
+ */
+final class SessionIndex {
+
+    static final SessionIndex EMPTY = new SessionIndex(new LinkedHashMap<String, Entry>());
+
+    static final class Entry {
+
+        final String id;
+        final String status;
+        final String token;
+        final ClerkUser user;
+
+        Entry(String id, String status, String token, ClerkUser user) {
+            this.id = id;
+            this.status = status;
+            this.token = token;
+            this.user = user;
+        }
+    }
+
+    private static final String TAG = "ClerkSessionIndex";
+
+    private final Map<String, Entry> entries;
+
+    private SessionIndex(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * An index of the sessions of a client resource. Sessions that come without a token keep
+     * the one already known for them.
+     */
+    SessionIndex synced(List<ClerkSession> sessions) {
+        Map<String, Entry> next = new LinkedHashMap<>();
+        for (ClerkSession session : sessions) {
+            if (session.id == null) {
+                continue;
+            }
+            String token = session.jwt;
+            if (token == null) {
+                Entry known = entries.get(session.id);
+                token = known != null ? known.token : null;
+            }
+            next.put(session.id, new Entry(session.id, session.status, token, session.user));
+        }
+        return new SessionIndex(next);
+    }
+
+    SessionIndex with(Entry entry) {
+        Map<String, Entry> next = new LinkedHashMap<>(entries);
+        next.put(entry.id, entry);
+        return new SessionIndex(next);
+    }
+
+    /**
+     * Records the latest token of a session that is already indexed.
+     */
+    SessionIndex withToken(String sessionId, String token) {
+        Entry entry = sessionId != null ? entries.get(sessionId) : null;
+        if (entry == null || token == null || token.equals(entry.token)) {
+            return this;
+        }
+        return with(new Entry(entry.id, entry.status, token, entry.user));
+    }
+
+    Entry get(String sessionId) {
+        return sessionId != null ? entries.get(sessionId) : null;
+    }
+
+    boolean contains(String sessionId) {
+        return sessionId != null && entries.containsKey(sessionId);
+    }
+
+    List<Entry> list() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Serializes the index for the auth state store, or returns null if it is empty.
+     */
+    String toJson() {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        try {
+            JSONArray json = new JSONArray();
+            for (Entry entry : entries.values()) {
+                JSONObject item = new JSONObject();
+                item.put("id", entry.id);
+                item.put("status", entry.status != null ? entry.status : JSONObject.NULL);
+                item.put("token", entry.token != null ? entry.token : JSONObject.NULL);
+                item.put("user", entry.user != null ? entry.user.toJson() : JSONObject.NULL);
+                json.put(item);
+            }
+            return json.toString();
+        } catch (JSONException e) {
+            Log.w(TAG, "Could not persist sessions", e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads an index previously written by {@link #toJson()}.
+     */
+    static SessionIndex fromJson(String json) {
+        if (json == null) {
+            return EMPTY;
+        }
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        try {
+            JSONArray items = new JSONArray(json);
+            for (int i = 0; i < items.length(); i++) {
+                JSONObject item = items.getJSONObject(i);
+                String id = item.getString("id");
+                JSONObject user = item.optJSONObject("user");
+                entries.put(id, new Entry(
+                    id,
+                    item.isNull("status") ? null : item.optString("status"),
+                    item.isNull("token") ? null : item.optString("token"),
+                    user != null ? ClerkResponseParser.toUser(user) : null
+                ));
+            }
+        } catch (JSONException e) {
+            Log.w(TAG, "Discarding unreadable persisted sessions", e);
+            return EMPTY;
+        }
+        return new SessionIndex(entries);
+    }
+}
@@ -0,0 +1,183 @@
+package com.trainon.capacitor.clerk;
+
+import android.util.Base64;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Verifies Clerk session JWTs locally against a cached copy of the instance's JWKS.
+ *
+ * This lets load() vouch for the persisted session without reaching Clerk: the stored token's
+ * RS256 signature is checked against the cached keys, along with its exp and nbf claims, so a
+ * tampered or foreign token on disk is never presented as a signed-in user.
+ */
+final class SessionTokenVerifier {
+
+    enum Status {
+        /** Signature and time claims check out. */
+        VALID,
+        /** Authentic, but past its exp. Identifies the user; can't be used as a bearer token. */
+        EXPIRED,
+        /** Bad signature, malformed or not yet valid. */
+        INVALID,
+        /** No cached key for the token's kid, so nothing can be said about it. */
+        UNVERIFIED
+    }
+
+    static final class Verification {
+
+        final Status status;
+        final String subject;
+        final String sessionId;
+        // iat claim in Clerk's time, 0 if absent
+        final long issuedAtMs;
+
+        Verification(Status status, String subject, String sessionId) {
+            this(status, subject, sessionId, 0);
+        }
+
+        Verification(Status status, String subject, String sessionId, long issuedAtMs) {
+            this.status = status;
+            this.subject = subject;
+            this.sessionId = sessionId;
+            this.issuedAtMs = issuedAtMs;
+        }
+
+        /**
+         * True if the token was signed by Clerk, whether or not it has expired. How old it is
+         * can be told from issuedAtMs.
+         */
+        boolean isAuthentic() {
+            return status == Status.VALID || status == Status.EXPIRED;
+        }
+    }
+
+    private static final String TAG = "ClerkTokenVerifier";
+
+    // Allowed difference between our clock and Clerk's when checking exp and nbf
+    static final long CLOCK_SKEW_TOLERANCE_MS = 10_000;
+
+    // Refetch the key set once a day
+    private static final long JWKS_MAX_AGE_MS = 24 * 60 * 60 * 1000L;
+
+    private static final int BASE64URL = Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING;
+
+    private volatile Map<String, PublicKey> keys = Collections.emptyMap();
+    private volatile String jwksJson;
+    private volatile long fetchedAtMs;
+
+    /**
+     * Replaces the cached key set. Keys that aren't RSA signing keys are ignored.
+     */
+    void setJwks(String jwksJson, long fetchedAtMs) {
+        if (jwksJson == null) {
+            return;
+        }
+        Map<String, PublicKey> parsed = new HashMap<>();
+        try {
+            JSONArray keysJson = new JSONObject(jwksJson).optJSONArray("keys");
+            if (keysJson != null) {
+                KeyFactory factory = KeyFactory.getInstance("RSA");
+                for (int i = 0; i < keysJson.length(); i++) {
+                    JSONObject key = keysJson.getJSONObject(i);
+                    if (!"RSA".equals(key.optString("kty")) || key.isNull("kid")) {
+                        continue;
+                    }
+                    BigInteger modulus = new BigInteger(1, Base64.decode(key.getString("n"), BASE64URL));
+                    BigInteger exponent = new BigInteger(1, Base64.decode(key.getString("e"), BASE64URL));
+                    parsed.put(key.getString("kid"), factory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+                }
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Ignoring unreadable JWKS", e);
+            return;
+        }
+        keys = parsed;
+        this.jwksJson = jwksJson;
+        this.fetchedAtMs = fetchedAtMs;
+    }
+
+    /**
+     * The key set in use, as last passed to {@link #setJwks}, or null if there is none.
+     */
+    String getJwksJson() {
+        return jwksJson;
+    }
+
+    long getFetchedAtMs() {
+        return fetchedAtMs;
+    }
+
+    /**
+     * True when there are no keys yet, or they are old enough to be refetched.
+     */
+    boolean needsRefresh(long nowMs) {
+        return keys.isEmpty() || nowMs - fetchedAtMs > JWKS_MAX_AGE_MS;
+    }
+
+    Verification verify(String jwt, long nowMs) {
+        if (jwt == null) {
+            return new Verification(Status.INVALID, null, null);
+        }
+        String[] parts = jwt.split("\\.");
+        if (parts.length != 3) {
+            return new Verification(Status.INVALID, null, null);
+        }
+
+        JSONObject header;
+        JSONObject claims;
+        try {
+            header = new JSONObject(new String(Base64.decode(parts[0], BASE64URL), StandardCharsets.UTF_8));
+            claims = new JSONObject(new String(Base64.decode(parts[1], BASE64URL), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | JSONException e) {
+            return new Verification(Status.INVALID, null, null);
+        }
+
+        String subject = claims.isNull("sub") ? null : claims.optString("sub", null);
+        String sessionId = claims.isNull("sid") ? null : claims.optString("sid", null);
+
+        if (!"RS256".equals(header.optString("alg"))) {
+            return new Verification(Status.INVALID, subject, sessionId);
+        }
+        PublicKey key = keys.get(header.optString("kid"));
+        if (key == null) {
+            return new Verification(Status.UNVERIFIED, subject, sessionId);
+        }
+
+        try {
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initVerify(key);
+            signature.update((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+            if (!signature.verify(Base64.decode(parts[2], BASE64URL))) {
+                return new Verification(Status.INVALID, subject, sessionId);
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Could not verify token signature", e);
+            return new Verification(Status.INVALID, subject, sessionId);
+        }
+
+        long notBeforeMs = claims.optLong("nbf", 0) * 1000;
+        if (notBeforeMs != 0 && nowMs + CLOCK_SKEW_TOLERANCE_MS < notBeforeMs) {
+            return new Verification(Status.INVALID, subject, sessionId);
+        }
+        long issuedAtMs = claims.optLong("iat", 0) * 1000;
+        long expiresAtMs = claims.optLong("exp", 0) * 1000;
+        if (expiresAtMs != 0 && nowMs - CLOCK_SKEW_TOLERANCE_MS >= expiresAtMs) {
+            return new Verification(Status.EXPIRED, subject, sessionId, issuedAtMs);
+        }
+        return new Verification(Status.VALID, subject, sessionId, issuedAtMs);
+    }
+}
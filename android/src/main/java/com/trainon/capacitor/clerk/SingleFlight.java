@@ -0,0 +1,96 @@
+package com.trainon.capacitor.clerk;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deduplicates concurrent work by key.
+ *
+ * The first caller for a key runs the task; anyone asking for the same key while it is still
+ * running is attached to that execution and gets the same result, instead of queueing another
+ * identical request to Clerk.
+ */
+final class SingleFlight {
+
+    interface Task<T> {
+        T run() throws Exception;
+    }
+
+    interface Callback<T> {
+        void onSuccess(T result);
+
+        void onError(Exception e);
+    }
+
+    private static final String TAG = "ClerkSingleFlight";
+
+    private final Map<String, List<Callback<?>>> inFlight = new HashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * Runs the task for the key on the executor, or joins the execution already in flight.
+     * Tasks sharing a key must produce the same result type.
+     */
+    <T> void execute(String key, Executor executor, Task<T> task, Callback<T> callback) {
+        synchronized (inFlight) {
+            List<Callback<?>> waiters = inFlight.get(key);
+            if (waiters != null) {
+                waiters.add(callback);
+                long total = coalescedCount.incrementAndGet();
+                Log.d(TAG, "Joined in-flight " + key + " (" + total + " calls coalesced so far)");
+                return;
+            }
+            waiters = new ArrayList<>();
+            waiters.add(callback);
+            inFlight.put(key, waiters);
+        }
+
+        try {
+            executor.execute(() -> {
+                T result = null;
+                Exception error = null;
+                try {
+                    result = task.run();
+                } catch (Exception e) {
+                    error = e;
+                }
+                complete(key, result, error);
+            });
+        } catch (RejectedExecutionException e) {
+            complete(key, null, e);
+        }
+    }
+
+    /**
+     * Number of calls that were served by joining an execution already in flight.
+     */
+    long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void complete(String key, T result, Exception error) {
+        List<Callback<?>> waiters;
+        synchronized (inFlight) {
+            waiters = inFlight.remove(key);
+        }
+        if (waiters == null) {
+            return;
+        }
+        for (Callback<?> waiter : waiters) {
+            Callback<T> callback = (Callback<T>) waiter;
+            if (error != null) {
+                callback.onError(error);
+            } else {
+                callback.onSuccess(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.trainon.capacitor.clerk;
+
+import android.util.Base64;
+import android.util.Log;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the active session JWT fresh, refreshing it shortly before it expires.
+ *
+ * Clerk session tokens are short lived (about a minute), so instead of handing out whatever
+ * token was stored last, the expiry is decoded locally from the JWT and a refresh is scheduled
+ * a little ahead of it. The token itself lives in the shared {@link AuthState}; reads are served
+ * from that snapshot and only an actually expired token forces the caller to wait for the
+ * network.
+ *
+ * Nothing is refreshed before {@link #start()}, which the plugin calls once configure() has
+ * told it where Clerk is. Background refreshes are paused while the app is backgrounded. On
+ * resume, a token that is about to expire is refreshed after a short settle delay, so rapid app
+ * switching doesn't turn into a burst of requests.
+ *
+ * A background refresh that fails transiently is retried with backoff. One that Clerk rejects
+ * because the session is gone stops the schedule and is reported to the {@link Listener}.
+ */
+final class TokenManager {
+
+    /**
+     * Fetches a new JWT for the given session from Clerk.
+     */
+    interface Refresher {
+        String refresh(String sessionId) throws Exception;
+    }
+
+    interface Listener {
+
+        /**
+         * A refresh replaced the cached token.
+         */
+        void onTokenRefreshed(String sessionId, String token);
+
+        /**
+         * Clerk no longer knows the session (401 or 404 from the token endpoint), so its token
+         * can't be refreshed. No further background refreshes are scheduled for it.
+         */
+        void onSessionRejected(String sessionId);
+    }
+
+    private static final String TAG = "ClerkTokenManager";
+
+    // Refresh this long before the token expires
+    private static final long REFRESH_LEAD_MS = 10_000;
+    // Never schedule refreshes closer together than this
+    private static final long MIN_REFRESH_DELAY_MS = 1_000;
+    // Wait this long after coming to the foreground before refreshing; a pause in between cancels it
+    private static final long RESUME_SETTLE_MS = 1_500;
+    // Try again this long after a background refresh failed, doubling up to the max
+    private static final long RETRY_DELAY_MS = 5_000;
+    private static final long MAX_RETRY_DELAY_MS = 60_000;
+    // Treat a token as expired slightly early so it doesn't die in flight
+    static final long EXPIRY_MARGIN_MS = 2_000;
+
+    private final AuthStateRef state;
+    private final ServerClock clock;
+    private final Refresher refresher;
+    private final Listener listener;
+    private final ScheduledExecutorService scheduler;
+    // Serializes network refreshes without blocking readers of the cached token
+    private final Object refreshLock = new Object();
+
+    private ScheduledFuture<?> scheduledRefresh;
+    private boolean paused;
+    // Background refreshes that failed in a row, for the retry backoff
+    private int failedRefreshes;
+    // Set once the plugin knows which Frontend API to refresh against
+    private volatile boolean started;
+
+    TokenManager(AuthStateRef state, ServerClock clock, Refresher refresher, Listener listener) {
+        this.state = state;
+        this.clock = clock;
+        this.refresher = refresher;
+        this.listener = listener;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * Allows refreshes and schedules one for the restored session, if any.
+     */
+    synchronized void start() {
+        started = true;
+        scheduleRefresh(MIN_REFRESH_DELAY_MS);
+    }
+
+    /**
+     * Reschedules the background refresh after the active session or its token was replaced.
+     */
+    synchronized void sessionChanged() {
+        failedRefreshes = 0;
+        scheduleRefresh(MIN_REFRESH_DELAY_MS);
+    }
+
+    /**
+     * Stops background refreshes while the app is backgrounded. Explicit refresh() calls still
+     * go through.
+     */
+    synchronized void pause() {
+        paused = true;
+        cancelScheduledRefresh();
+    }
+
+    /**
+     * Resumes background refreshes. A token that expired or is about to while the app was away
+     * is refreshed once the app has stayed in the foreground for a moment.
+     */
+    synchronized void resume() {
+        paused = false;
+        scheduleRefresh(RESUME_SETTLE_MS);
+    }
+
+    /**
+     * True when the snapshot has an expired token that can be refreshed for its session.
+     */
+    boolean needsRefresh(AuthState snapshot) {
+        return snapshot.sessionId != null && !isFresh(snapshot);
+    }
+
+    /**
+     * Refreshes the token synchronously. Unless forced, a still-valid token is returned as is,
+     * so concurrent callers that queued behind a refresh don't trigger another one.
+     */
+    String refresh(boolean force) throws Exception {
+        if (!started) {
+            throw new IllegalStateException("Clerk is not configured, call configure() first");
+        }
+        synchronized (refreshLock) {
+            AuthState before = state.get();
+            if (before.sessionId == null || (!force && isFresh(before))) {
+                return before.sessionToken;
+            }
+            String refreshSessionId = before.sessionId;
+
+            String refreshed = refresher.refresh(refreshSessionId);
+
+            // Drop the result if the session changed while we were on the network
+            AuthState after = state.update(current ->
+                refreshed != null && refreshSessionId.equals(current.sessionId)
+                    ? current.withSessionToken(refreshed)
+                    : current
+            );
+            if (refreshed != null && refreshSessionId.equals(after.sessionId)) {
+                sessionChanged();
+                listener.onTokenRefreshed(refreshSessionId, refreshed);
+            }
+            return after.sessionToken;
+        }
+    }
+
+    private void refreshIfDue() throws Exception {
+        AuthState current = state.get();
+        if (current.sessionId == null) {
+            return;
+        }
+        // Someone else already refreshed since this was scheduled
+        if (current.tokenExpiresAtMs != 0 && now() < current.tokenExpiresAtMs - REFRESH_LEAD_MS) {
+            sessionChanged();
+            return;
+        }
+        refresh(true);
+    }
+
+    void shutdown() {
+        synchronized (this) {
+            cancelScheduledRefresh();
+        }
+        scheduler.shutdownNow();
+    }
+
+    private boolean isFresh(AuthState snapshot) {
+        if (snapshot.sessionToken == null) {
+            return false;
+        }
+        // Tokens without a readable exp are served as is, as before
+        return snapshot.tokenExpiresAtMs == 0 || now() < snapshot.tokenExpiresAtMs - EXPIRY_MARGIN_MS;
+    }
+
+    // exp is in Clerk's time, so compare against Clerk's clock rather than the device's
+    private long now() {
+        return clock.now();
+    }
+
+    private void scheduleRefresh(long minDelayMs) {
+        cancelScheduledRefresh();
+        AuthState current = state.get();
+        if (!started || paused || current.sessionId == null || current.tokenExpiresAtMs == 0) {
+            return;
+        }
+
+        long delay = Math.max(minDelayMs, current.tokenExpiresAtMs - REFRESH_LEAD_MS - now());
+        String sessionId = current.sessionId;
+        scheduledRefresh = scheduler.schedule(() -> {
+            try {
+                refreshIfDue();
+            } catch (Exception e) {
+                onScheduledRefreshFailed(sessionId, e);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void onScheduledRefreshFailed(String sessionId, Exception e) {
+        if (isSessionRejected(e)) {
+            Log.w(TAG, "Session " + sessionId + " was rejected, no longer refreshing it", e);
+            synchronized (this) {
+                cancelScheduledRefresh();
+            }
+            listener.onSessionRejected(sessionId);
+            return;
+        }
+        if (!isTransient(e)) {
+            // Retrying won't change the answer; the next sessionChanged() or resume() tries again
+            Log.w(TAG, "Scheduled token refresh failed", e);
+            return;
+        }
+        synchronized (this) {
+            long delay = Math.min(MAX_RETRY_DELAY_MS, RETRY_DELAY_MS << Math.min(failedRefreshes, 4));
+            failedRefreshes++;
+            Log.w(TAG, "Scheduled token refresh failed, retrying in " + delay + "ms", e);
+            scheduleRefresh(delay);
+        }
+    }
+
+    private static boolean isSessionRejected(Exception e) {
+        if (!(e instanceof ClerkApiException)) {
+            return false;
+        }
+        int code = ((ClerkApiException) e).getStatusCode();
+        return code == 401 || code == 404;
+    }
+
+    // Network failures, rate limiting and server errors; other client errors are final
+    private static boolean isTransient(Exception e) {
+        if (e instanceof ClerkApiException) {
+            int code = ((ClerkApiException) e).getStatusCode();
+            return code == 429 || code >= 500;
+        }
+        return e instanceof IOException;
+    }
+
+    private void cancelScheduledRefresh() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+    }
+
+    /**
+     * Reads the exp claim of a JWT, in milliseconds since the epoch. Returns 0 if it can't be read.
+     */
+    static long decodeExpiry(String jwt) {
+        if (jwt == null) {
+            return 0;
+        }
+        String[] parts = jwt.split("\\.");
+        if (parts.length < 2) {
+            return 0;
+        }
+        try {
+            byte[] payload = Base64.decode(parts[1], Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING);
+            JSONObject claims = new JSONObject(new String(payload, StandardCharsets.UTF_8));
+            return claims.optLong("exp", 0) * 1000;
+        } catch (Exception e) {
+            Log.w(TAG, "Could not decode token expiry", e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.trainon.capacitor.clerk;
+
+import android.util.Log;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+
+import org.json.JSONException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Memoizes the JS view of each user, so that getUser() and every auth flow hand out the same
+ * object until the user actually changes.
+ *
+ * Projections are keyed by user id and only rebuilt when Clerk's updated_at moves, even if the
+ * user was re-parsed in between. The optional sections (phone numbers, organizations and public
+ * metadata) are each built the first time a caller asks for them. Cached objects are shared
+ * between calls and must not be modified.
+ */
+final class UserProjectionCache {
+
+    static final int PHONE_NUMBERS = 1;
+    static final int ORGANIZATIONS = 1 << 1;
+    static final int PUBLIC_METADATA = 1 << 2;
+
+    private static final String TAG = "ClerkUserProjection";
+    private static final int FIELD_COMBINATIONS = 1 << 3;
+
+    private static final class Projection {
+
+        final ClerkUser user;
+        // Indexed by the requested field mask
+        final JSObject[] variants = new JSObject[FIELD_COMBINATIONS];
+        JSArray phoneNumbers;
+        JSArray organizations;
+        JSObject publicMetadata;
+
+        Projection(ClerkUser user) {
+            this.user = user;
+        }
+    }
+
+    private final Map<String, Projection> projections = new HashMap<>();
+    private long hits;
+    private long misses;
+
+    /**
+     * The JS view of the user with the requested optional fields, or null for no user.
+     */
+    synchronized JSObject get(ClerkUser user, int fields) {
+        if (user == null) {
+            return null;
+        }
+        fields &= FIELD_COMBINATIONS - 1;
+
+        Projection projection = user.id != null ? projections.get(user.id) : null;
+        if (projection == null || !isCurrent(projection.user, user)) {
+            projection = new Projection(user);
+            if (user.id != null) {
+                projections.put(user.id, projection);
+            }
+        }
+
+        JSObject variant = projection.variants[fields];
+        if (variant != null) {
+            hits++;
+            return variant;
+        }
+        misses++;
+
+        variant = projection.user.toJSObject();
+        if ((fields & PHONE_NUMBERS) != 0) {
+            variant.put("phoneNumber", primaryPhoneNumber(projection.user));
+            variant.put("phoneNumbers", phoneNumbers(projection));
+        }
+        if ((fields & ORGANIZATIONS) != 0) {
+            variant.put("organizationMemberships", organizations(projection));
+        }
+        if ((fields & PUBLIC_METADATA) != 0) {
+            variant.put("publicMetadata", publicMetadata(projection));
+        }
+        projection.variants[fields] = variant;
+        return variant;
+    }
+
+    synchronized void clear() {
+        projections.clear();
+    }
+
+    synchronized long getHitCount() {
+        return hits;
+    }
+
+    synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Users without an updated_at (persisted by older versions) fall back to a full comparison.
+     */
+    private static boolean isCurrent(ClerkUser cached, ClerkUser user) {
+        if (cached == user) {
+            return true;
+        }
+        if (cached.updatedAt != 0 && user.updatedAt != 0) {
+            return cached.updatedAt == user.updatedAt;
+        }
+        return cached.equals(user);
+    }
+
+    private static Object primaryPhoneNumber(ClerkUser user) {
+        if (user.phoneNumbers.isEmpty()) {
+            return JSObject.NULL;
+        }
+        for (ClerkUser.PhoneNumber phone : user.phoneNumbers) {
+            if (phone.id != null && phone.id.equals(user.primaryPhoneNumberId)) {
+                return phone.phoneNumber;
+            }
+        }
+        return user.phoneNumbers.get(0).phoneNumber;
+    }
+
+    private static JSArray phoneNumbers(Projection projection) {
+        if (projection.phoneNumbers == null) {
+            JSArray phones = new JSArray();
+            for (ClerkUser.PhoneNumber phone : projection.user.phoneNumbers) {
+                JSObject phoneJson = new JSObject();
+                phoneJson.put("id", phone.id);
+                phoneJson.put("phoneNumber", phone.phoneNumber);
+                phones.put(phoneJson);
+            }
+            projection.phoneNumbers = phones;
+        }
+        return projection.phoneNumbers;
+    }
+
+    private static JSArray organizations(Projection projection) {
+        if (projection.organizations == null) {
+            JSArray memberships = new JSArray();
+            for (ClerkUser.OrganizationMembership membership : projection.user.organizationMemberships) {
+                JSObject membershipJson = new JSObject();
+                membershipJson.put("id", membership.id);
+                membershipJson.put("role", membership.role);
+                membershipJson.put("organizationId", membership.organizationId);
+                membershipJson.put("organizationName", membership.organizationName);
+                membershipJson.put("organizationSlug", membership.organizationSlug);
+                membershipJson.put("organizationImageUrl", membership.organizationImageUrl);
+                memberships.put(membershipJson);
+            }
+            projection.organizations = memberships;
+        }
+        return projection.organizations;
+    }
+
+    private static JSObject publicMetadata(Projection projection) {
+        if (projection.publicMetadata == null) {
+            JSObject metadata = null;
+            if (projection.user.publicMetadata != null) {
+                try {
+                    metadata = new JSObject(projection.user.publicMetadata);
+                } catch (JSONException e) {
+                    Log.w(TAG, "Unreadable public metadata", e);
+                }
+            }
+            projection.publicMetadata = metadata != null ? metadata : new JSObject();
+        }
+        return projection.publicMetadata;
+    }
+}
@@ -0,0 +1,190 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Locale;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * End-to-end latency and throughput of the auth flows, driven through the plugin against
+ * {@link MockFrontendApi}. The mock answers without delay, so the numbers are the plugin's own
+ * overhead: dispatching, HTTP on loopback, parsing, persisting and bridging the result.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AuthFlowBenchmarkTest {
+
+    private final MockFrontendApi api = new MockFrontendApi();
+    private MockWebServer server;
+    private TestClerkPlugin plugin;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(api);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (plugin != null) {
+            plugin.destroy();
+        }
+        server.shutdown();
+    }
+
+    private void startPlugin() throws InterruptedException {
+        plugin = TestClerkPlugin.start(server);
+        plugin.configure();
+    }
+
+    private void measure(LatencyStats stats, int iterations, String method) throws InterruptedException {
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            RecordingPluginCall call = plugin.invoke(method);
+            call.awaitResult();
+            stats.record(call.getLatencyNanos());
+        }
+        Benchmarks.report(stats.summary(System.nanoTime() - wallStart));
+    }
+
+    @Test
+    public void loadAndGetUser() throws Exception {
+        api.clientFixture(Fixtures.CLIENT_LARGE).etags(true);
+        startPlugin();
+        int iterations = Benchmarks.iterations(50, 2_000);
+
+        LatencyStats cold = new LatencyStats("load (create client, large)");
+        RecordingPluginCall first = plugin.invoke("load");
+        first.awaitResult();
+        cold.record(first.getLatencyNanos());
+        Benchmarks.report(cold.summary());
+
+        // Answered from memory; background revalidations after the first are answered with a 304
+        measure(new LatencyStats("load (persisted, large)"), iterations, "load");
+        measure(new LatencyStats("getUser (large)"), iterations, "getUser");
+    }
+
+    /**
+     * Cold start cost of the persisted state, with the large client's sessions on disk, and
+     * how many disk writes each sign-in costs once write-behind coalescing has had its say.
+     */
+    @Test
+    public void authStateStore() throws Exception {
+        api.clientFixture(Fixtures.CLIENT_LARGE);
+        startPlugin();
+        plugin.call("load");
+        plugin.destroy();
+
+        LatencyStats preload = new LatencyStats("AuthStateStore preload (large)");
+        for (int i = 0; i < Benchmarks.iterations(20, 500); i++) {
+            AuthStateStore store = new AuthStateStore(RuntimeEnvironment.getApplication(), "ClerkNativePrefs");
+            long start = System.nanoTime();
+            store.preload(state -> { });
+            store.awaitLoaded();
+            preload.record(System.nanoTime() - start);
+            store.shutdown();
+        }
+        Benchmarks.report(preload.summary());
+
+        api.signedOut(true);
+        startPlugin();
+        plugin.call("load");
+        int iterations = Benchmarks.iterations(5, 50);
+        JSObject before = plugin.call("getMetrics").getJSObject("store");
+        for (int i = 0; i < iterations; i++) {
+            plugin.signInWithPassword("ada@example.com", "correct horse");
+            // Past the coalescing window, so each sign-in pays for its own writes
+            Thread.sleep(400);
+            plugin.call("signOut");
+            Thread.sleep(400);
+        }
+        JSObject after = plugin.call("getMetrics").getJSObject("store");
+        double requests = (after.getLong("writeRequests") - before.getLong("writeRequests")) / (double) iterations;
+        double diskWrites = (after.getLong("diskWrites") - before.getLong("diskWrites")) / (double) iterations;
+        Benchmarks.report(String.format(Locale.ROOT,
+            "signInWithPassword + signOut: %.1f write requests, %.1f disk writes per cycle", requests, diskWrites));
+        assertTrue(diskWrites <= requests);
+    }
+
+    @Test
+    public void getToken() throws Exception {
+        startPlugin();
+        plugin.call("load");
+        int iterations = Benchmarks.iterations(50, 2_000);
+
+        measure(new LatencyStats("getToken (memory)"), iterations * 10, "getToken");
+
+        // Each token is inside the expiry margin as soon as it is issued
+        api.tokenTtlMs(1_000);
+        plugin.call("refreshSession");
+        int before = api.countMatching("POST /v1/client/sessions/");
+        measure(new LatencyStats("getToken (refresh)"), iterations, "getToken");
+        // Scheduled background refreshes may add to these
+        assertTrue(api.countMatching("POST /v1/client/sessions/") - before >= iterations);
+    }
+
+    /**
+     * Login latency with the password sent along when creating the sign-in, against the old
+     * two-step flow (create, then attempt_first_factor), on a link with a mobile-like RTT.
+     */
+    @Test
+    public void signInSingleRoundTripVersusTwoStep() throws Exception {
+        api.signedOut(true).latency(80, 20);
+        startPlugin();
+        plugin.call("load");
+        int iterations = Benchmarks.iterations(8, 100);
+
+        LatencyStats twoStep = signIns("signInWithPassword (two-step)", iterations, false);
+        LatencyStats singleRoundTrip = signIns("signInWithPassword (single round trip)", iterations, true);
+
+        Benchmarks.report(String.format(Locale.ROOT, "single round trip saves %.1fms at p50",
+            twoStep.percentileMs(0.50) - singleRoundTrip.percentileMs(0.50)));
+        // One request of at least 80ms fewer
+        assertTrue(singleRoundTrip.percentileMs(0.50) + 50 < twoStep.percentileMs(0.50));
+    }
+
+    private LatencyStats signIns(String name, int iterations, boolean singleRoundTrip) throws InterruptedException {
+        api.singleRoundTripSignIn(singleRoundTrip);
+        LatencyStats stats = new LatencyStats(name);
+        for (int i = 0; i < iterations; i++) {
+            RecordingPluginCall call = plugin.invoke("signInWithPassword",
+                new JSObject().put("email", "ada@example.com").put("password", "correct horse"));
+            call.awaitResult();
+            stats.record(call.getLatencyNanos());
+            plugin.call("signOut");
+        }
+        Benchmarks.report(stats.summary());
+        return stats;
+    }
+
+    @Test
+    public void signInWithPassword() throws Exception {
+        api.signedOut(true);
+        startPlugin();
+        plugin.call("load");
+        int iterations = Benchmarks.iterations(20, 500);
+
+        LatencyStats signIn = new LatencyStats("signInWithPassword");
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            RecordingPluginCall call = plugin.invoke("signInWithPassword",
+                new JSObject().put("email", "ada@example.com").put("password", "correct horse"));
+            call.awaitResult();
+            signIn.record(call.getLatencyNanos());
+            plugin.call("signOut");
+        }
+        Benchmarks.report(signIn.summary(System.nanoTime() - wallStart));
+        assertEquals(iterations, api.count("POST /v1/client/sign_ins"));
+    }
+}
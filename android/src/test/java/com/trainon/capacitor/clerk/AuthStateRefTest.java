@@ -0,0 +1,85 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class AuthStateRefTest {
+
+    private static final String SESSION_ID = "sess_2P7lyHv4El59xzq8IrUPTolOi08";
+    private static final String USER_ID = "user_2n4RGHajS5UyV9G20Hhv7CZ7WG0";
+
+    private final AuthStateRef ref = new AuthStateRef();
+
+    private static AuthState increment(AuthState current) {
+        int count = current.clientToken != null ? Integer.parseInt(current.clientToken) : 0;
+        return current.withClientToken(String.valueOf(count + 1));
+    }
+
+    @Test
+    public void unchangedTransitionPublishesNothing() {
+        AuthState before = ref.get();
+
+        assertSame(before, ref.update(current -> current));
+        assertSame(before, ref.get());
+    }
+
+    @Test
+    public void compareAndSetFailsAfterAnotherPublish() {
+        AuthState expected = ref.get();
+        ref.update(AuthStateRefTest::increment);
+
+        assertFalse(ref.compareAndSet(expected, expected.withClientToken("lost")));
+        assertEquals("1", ref.get().clientToken);
+    }
+
+    @Test
+    public void sessionTokenIsRecordedInSessionIndex() {
+        ClerkSession session = new ClerkSession(SESSION_ID, "active", null, null);
+        ref.set(AuthState.EMPTY.withSessions(SessionIndex.EMPTY.synced(Arrays.asList(session))));
+        String token = TestTokens.sessionToken(SESSION_ID, USER_ID, 60_000);
+
+        AuthState state = ref.update(current -> current.withSession(SESSION_ID, null, null).withSessionToken(token));
+
+        assertEquals(token, state.sessionToken);
+        assertEquals(token, state.sessions.get(SESSION_ID).token);
+    }
+
+    @Test
+    public void stressConcurrentUpdatesAreNeverLost() throws Exception {
+        int threads = 8;
+        int updatesPerThread = Benchmarks.iterations(2_000, 100_000);
+        ExecutorService writers = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < threads; t++) {
+            writers.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < updatesPerThread; i++) {
+                    ref.update(AuthStateRefTest::increment);
+                }
+            });
+        }
+        start.countDown();
+        writers.shutdown();
+        assertTrue(writers.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertEquals(String.valueOf(threads * updatesPerThread), ref.get().clientToken);
+    }
+}
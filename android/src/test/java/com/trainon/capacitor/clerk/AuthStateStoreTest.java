@@ -0,0 +1,171 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+@RunWith(RobolectricTestRunner.class)
+public class AuthStateStoreTest {
+
+    private static final String LEGACY_PREFS = "ClerkNativePrefs";
+    private static final String FILE_NAME = "clerk_native_state.json";
+
+    private final Context context = RuntimeEnvironment.getApplication();
+    private final List<AuthStateStore> stores = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (AuthStateStore store : stores) {
+            store.shutdown();
+        }
+    }
+
+    private AuthStateStore open(AtomicReference<Map<String, String>> loaded) {
+        AuthStateStore store = new AuthStateStore(context, LEGACY_PREFS);
+        stores.add(store);
+        store.preload(loaded::set);
+        store.awaitLoaded();
+        return store;
+    }
+
+    private Map<String, String> reopen() {
+        AtomicReference<Map<String, String>> loaded = new AtomicReference<>();
+        open(loaded);
+        return loaded.get();
+    }
+
+    private static void waitForDiskWrites(AuthStateStore store, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (store.getDiskWriteCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, store.getDiskWriteCount());
+    }
+
+    private File stateFile() {
+        return new File(context.getFilesDir(), FILE_NAME);
+    }
+
+    private static void write(File file, String contents) throws Exception {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(contents.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void writesWithinWindowAreCoalesced() throws Exception {
+        AuthStateStore store = open(new AtomicReference<>());
+
+        for (int i = 0; i < 10; i++) {
+            store.putAll(Collections.singletonMap("session_token", "token" + i));
+        }
+        waitForDiskWrites(store, 1);
+
+        assertEquals(10, store.getWriteRequestCount());
+        assertEquals("token9", reopen().get("session_token"));
+    }
+
+    @Test
+    public void flushWritesRightAway() throws Exception {
+        AuthStateStore store = open(new AtomicReference<>());
+        store.putAll(Collections.singletonMap("session_id", "sess_1"));
+
+        store.flush();
+        waitForDiskWrites(store, 1);
+
+        assertEquals("sess_1", reopen().get("session_id"));
+    }
+
+    @Test
+    public void nullValuesRemoveKeys() throws Exception {
+        AuthStateStore store = open(new AtomicReference<>());
+        Map<String, String> state = new HashMap<>();
+        state.put("session_id", "sess_1");
+        state.put("user", "{}");
+        store.putAll(state);
+        store.putAll(Collections.singletonMap("user", null));
+        store.flush();
+        waitForDiskWrites(store, 1);
+
+        Map<String, String> reloaded = reopen();
+
+        assertEquals("sess_1", reloaded.get("session_id"));
+        assertFalse(reloaded.containsKey("user"));
+    }
+
+    @Test
+    public void interruptedWriteLeavesPreviousStateIntact() throws Exception {
+        AuthStateStore store = open(new AtomicReference<>());
+        store.putAll(Collections.singletonMap("session_id", "sess_1"));
+        store.flush();
+        waitForDiskWrites(store, 1);
+        // What a crash halfway through the next write leaves behind
+        write(new File(context.getFilesDir(), FILE_NAME + ".new"), "{\"session_id\":\"sess_");
+
+        assertEquals("sess_1", reopen().get("session_id"));
+    }
+
+    @Test
+    public void unreadableFileIsDiscarded() throws Exception {
+        write(stateFile(), "{not json");
+
+        AtomicReference<Map<String, String>> loaded = new AtomicReference<>();
+        AuthStateStore store = open(loaded);
+        assertTrue(loaded.get().isEmpty());
+
+        // And replaced by the next write
+        store.putAll(Collections.singletonMap("session_id", "sess_1"));
+        store.flush();
+        waitForDiskWrites(store, 1);
+        assertEquals("sess_1", reopen().get("session_id"));
+    }
+
+    @Test
+    public void migratesLegacyPreferences() throws Exception {
+        context.getSharedPreferences(LEGACY_PREFS, Context.MODE_PRIVATE).edit()
+            .putString("client_token", "client_1")
+            .putString("session_id", "sess_1")
+            .commit();
+
+        AtomicReference<Map<String, String>> loaded = new AtomicReference<>();
+        AuthStateStore store = open(loaded);
+
+        assertEquals("client_1", loaded.get().get("client_token"));
+        assertEquals("sess_1", loaded.get().get("session_id"));
+        assertEquals(1, store.getDiskWriteCount());
+        assertTrue(context.getSharedPreferences(LEGACY_PREFS, Context.MODE_PRIVATE).getAll().isEmpty());
+        assertEquals("client_1", reopen().get("client_token"));
+    }
+
+    @Test
+    public void clearRemovesEverything() throws Exception {
+        AuthStateStore store = open(new AtomicReference<>());
+        store.putAll(Collections.singletonMap("session_id", "sess_1"));
+        store.flush();
+        waitForDiskWrites(store, 1);
+
+        store.clear();
+        store.flush();
+        waitForDiskWrites(store, 2);
+
+        assertTrue(reopen().isEmpty());
+    }
+}
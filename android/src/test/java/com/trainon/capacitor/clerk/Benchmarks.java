@@ -0,0 +1,20 @@
+package com.trainon.capacitor.clerk;
+
+/**
+ * Switches the benchmark-style tests between a quick smoke run (the default, part of every
+ * test run) and a full measurement run with -PclerkBenchmarks=true.
+ */
+final class Benchmarks {
+
+    static final boolean FULL = Boolean.getBoolean("clerk.benchmarks");
+
+    private Benchmarks() {}
+
+    static int iterations(int quick, int full) {
+        return FULL ? full : quick;
+    }
+
+    static void report(String line) {
+        System.out.println("[clerk-bench] " + line);
+    }
+}
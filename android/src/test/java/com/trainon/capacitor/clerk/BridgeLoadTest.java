@@ -0,0 +1,217 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+
+import com.getcapacitor.JSObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Load test for bursty bridge traffic: a WebView app firing overlapping getToken, load and
+ * getUser calls during startup and navigation.
+ *
+ * Each dispatching mode runs the same bursts against {@link MockFrontendApi} with the latency
+ * and error rate of the scenario, and reports throughput, p50/p99 latency per method and the
+ * dispatcher queue depth. Tokens are issued inside the expiry margin so that token calls
+ * actually reach the network.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BridgeLoadTest {
+
+    private static final long SAMPLE_INTERVAL_MS = 2;
+    private static final long CALL_TIMEOUT_MS = 60_000;
+
+    /**
+     * How the plugin dispatches requests.
+     */
+    private static final class Mode {
+
+        final String name;
+        final Map<String, Object> settings = new HashMap<>();
+
+        Mode(String name, int maxParallelRequests, boolean hedgeClientFetch) {
+            this.name = name;
+            settings.put("maxParallelRequests", maxParallelRequests);
+            settings.put("hedgeClientFetch", hedgeClientFetch);
+            settings.put("hedgeDelayMs", 50);
+        }
+    }
+
+    private static final Mode[] MODES = {
+        // One worker, as when every call went through a single executor
+        new Mode("serial", 1, false),
+        new Mode("parallel", 3, false),
+        new Mode("parallel+hedged", 3, true),
+    };
+
+    private final MockFrontendApi api = new MockFrontendApi();
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(api);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void healthyFrontendApi() throws Exception {
+        api.latency(30, 40);
+        assertEquals(0, runScenario("healthy"));
+    }
+
+    @Test
+    public void flakyFrontendApi() throws Exception {
+        api.latency(30, 40).errorRate(0.05);
+        // Retries absorb most errors; the count is reported rather than asserted
+        runScenario("flaky");
+    }
+
+    /**
+     * Runs the bursts in every mode and returns the number of rejected calls.
+     */
+    private int runScenario(String scenario) throws Exception {
+        int rejected = 0;
+        for (Mode mode : MODES) {
+            rejected += runMode(scenario, mode);
+        }
+        return rejected;
+    }
+
+    private int runMode(String scenario, Mode mode) throws Exception {
+        TestClerkPlugin plugin = TestClerkPlugin.start(server, mode.settings);
+        try {
+            plugin.configure();
+            api.tokenTtlMs(1_000);
+            plugin.call("load");
+            plugin.call("resetMetrics");
+
+            int bursts = Benchmarks.iterations(3, 20);
+            int burstSize = Benchmarks.iterations(60, 300);
+            Map<String, LatencyStats> stats = new LinkedHashMap<>();
+            LatencyStats all = new LatencyStats(scenario + "/" + mode.name);
+            QueueSampler sampler = new QueueSampler(plugin);
+            Random random = new Random(7);
+            int rejected = 0;
+
+            sampler.start();
+            long wallStart = System.nanoTime();
+            for (int burst = 0; burst < bursts; burst++) {
+                List<RecordingPluginCall> calls = new ArrayList<>();
+                for (int i = 0; i < burstSize; i++) {
+                    calls.add(invokeRandom(plugin, random));
+                }
+                for (RecordingPluginCall call : calls) {
+                    if (!call.await(CALL_TIMEOUT_MS)) {
+                        throw new AssertionError(call.getMethodName() + " was never settled");
+                    }
+                    assertEquals(1, call.getSettleCount());
+                    String name = call.getMethodName() + (call.getData().has("template") ? " (template)" : "");
+                    LatencyStats methodStats = stats.get(name);
+                    if (methodStats == null) {
+                        methodStats = new LatencyStats("  " + name);
+                        stats.put(name, methodStats);
+                    }
+                    methodStats.record(call.getLatencyNanos());
+                    all.record(call.getLatencyNanos());
+                    if (call.isRejected()) {
+                        rejected++;
+                    }
+                }
+            }
+            long wallNanos = System.nanoTime() - wallStart;
+            sampler.stop();
+
+            JSObject metrics = plugin.call("getMetrics");
+            Benchmarks.report(all.summary(wallNanos) + String.format(Locale.ROOT,
+                "  queue peak=%d mean=%.1f  rejected=%d",
+                metrics.getLong("peakQueueDepth"), sampler.meanQueued(), rejected));
+            for (LatencyStats methodStats : stats.values()) {
+                Benchmarks.report(methodStats.summary());
+            }
+            return rejected;
+        } finally {
+            plugin.destroy();
+        }
+    }
+
+    /**
+     * Roughly the mix of a WebView app: mostly token reads, some session and user reads, and
+     * tokens for a handful of JWT templates.
+     */
+    private static RecordingPluginCall invokeRandom(TestClerkPlugin plugin, Random random) {
+        int pick = random.nextInt(10);
+        if (pick < 4) {
+            return plugin.invoke("getToken");
+        }
+        if (pick < 6) {
+            return plugin.invoke("getToken", new JSObject().put("template", "template" + random.nextInt(4)));
+        }
+        if (pick < 8) {
+            return plugin.invoke("getUser");
+        }
+        return plugin.invoke("load");
+    }
+
+    /**
+     * Polls the dispatcher's queue length while the bursts run.
+     */
+    private static final class QueueSampler implements Runnable {
+
+        private final TestClerkPlugin plugin;
+        private final Thread thread = new Thread(this, "queue-sampler");
+        private volatile boolean running = true;
+        private long samples;
+        private long totalQueued;
+
+        QueueSampler(TestClerkPlugin plugin) {
+            this.plugin = plugin;
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void stop() throws InterruptedException {
+            running = false;
+            thread.join();
+        }
+
+        double meanQueued() {
+            return samples > 0 ? totalQueued / (double) samples : 0;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    JSObject dispatcher = plugin.call("getMetrics").getJSObject("dispatcher");
+                    totalQueued += dispatcher.getInteger("queued");
+                    samples++;
+                    Thread.sleep(SAMPLE_INTERVAL_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import okhttp3.Request;
+import okhttp3.RequestBody;
+
+public class ClerkMetricsTest {
+
+    private static String key(String method, String path) {
+        Request.Builder builder = new Request.Builder().url("https://clerk.example.com" + path);
+        if (method.equals("POST")) {
+            builder.post(RequestBody.create(new byte[0]));
+        } else {
+            builder.method(method, null);
+        }
+        return ClerkMetrics.endpointKey(builder.build());
+    }
+
+    @Test
+    public void keepsPathWords() {
+        assertEquals("POST /v1/client/sign_ins", key("POST", "/v1/client/sign_ins?_clerk_js_version=5.117.0"));
+        assertEquals("POST /v1/client/sign_ups", key("POST", "/v1/client/sign_ups"));
+        assertEquals("GET /v1/client", key("GET", "/v1/client"));
+        assertEquals("GET /.well-known/jwks.json", key("GET", "/.well-known/jwks.json"));
+        assertEquals("DELETE /v1/client/sessions", key("DELETE", "/v1/client/sessions"));
+    }
+
+    @Test
+    public void collapsesResourceIds() {
+        assertEquals("POST /v1/client/sign_ins/:id/attempt_first_factor",
+            key("POST", "/v1/client/sign_ins/sia_2PZpwKL5qOKz0cDdOzDoYKiO9Be/attempt_first_factor"));
+        assertEquals("POST /v1/client/sign_ups/:id/prepare_verification",
+            key("POST", "/v1/client/sign_ups/sua_2UF16iQleVv5qujTQ1NdsMOVTVe/prepare_verification"));
+        assertEquals("POST /v1/client/sessions/:id/tokens",
+            key("POST", "/v1/client/sessions/sess_2P7lyHv4El59xzq8IrUPTolOi08/tokens"));
+        assertEquals("POST /v1/client/sessions/:id/touch",
+            key("POST", "/v1/client/sessions/sess_2P7lyHv4El59xzq8IrUPTolOi08/touch"));
+    }
+
+    @Test
+    public void keepsTemplateNames() {
+        assertEquals("POST /v1/client/sessions/:id/tokens/supabase",
+            key("POST", "/v1/client/sessions/sess_2P7lyHv4El59xzq8IrUPTolOi08/tokens/supabase"));
+        assertEquals("POST /v1/client/sessions/:id/tokens/my_template",
+            key("POST", "/v1/client/sessions/sess_2P7lyHv4El59xzq8IrUPTolOi08/tokens/my_template"));
+    }
+
+    @Test
+    public void requiresIdLikeSuffix() {
+        assertEquals("GET /v1/client/user_settings", key("GET", "/v1/client/user_settings"));
+        assertEquals("GET /v1/client/sess_x", key("GET", "/v1/client/sess_x"));
+    }
+}
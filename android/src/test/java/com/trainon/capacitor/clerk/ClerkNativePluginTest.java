@@ -0,0 +1,507 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+import org.robolectric.shadows.ShadowConnectivityManager;
+import org.robolectric.shadows.ShadowNetwork;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * End-to-end flows through the plugin against {@link MockFrontendApi}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ClerkNativePluginTest {
+
+    private static final String SMALL_SESSION_ID = "sess_2P7lyHv4El59xzq8IrUPTolOi08";
+    private static final String SMALL_USER_ID = "user_2n4RGHajS5UyV9G20Hhv7CZ7WG0";
+    private static final String LARGE_USER_ID = "user_2RsBulL510E6XTnjVycFxpmceZ7";
+
+    private final MockFrontendApi api = new MockFrontendApi();
+    private MockWebServer server;
+    private TestClerkPlugin plugin;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(api);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (plugin != null) {
+            plugin.destroy();
+        }
+        server.shutdown();
+    }
+
+    private TestClerkPlugin startPlugin() throws InterruptedException {
+        plugin = TestClerkPlugin.start(server);
+        plugin.configure();
+        return plugin;
+    }
+
+    private static String userId(JSObject result) throws Exception {
+        JSONObject user = result.optJSONObject("user");
+        return user != null ? user.getString("id") : null;
+    }
+
+    @Test
+    public void loadCreatesClientWhenNoneIsSaved() throws Exception {
+        startPlugin();
+
+        JSObject result = plugin.call("load");
+
+        assertEquals(1, api.count("POST /v1/client"));
+        assertEquals(0, api.count("GET /v1/client"));
+        assertFalse(result.getBoolean("stale"));
+        assertEquals(SMALL_USER_ID, userId(result));
+    }
+
+    @Test
+    public void loadParsesLargeClient() throws Exception {
+        api.clientFixture(Fixtures.CLIENT_LARGE);
+        startPlugin();
+        plugin.call("load");
+
+        JSObject result = plugin.call("getUser", new JSObject().put("includeOrganizations", true));
+
+        assertEquals(LARGE_USER_ID, userId(result));
+        assertEquals(40, result.getJSONObject("user").getJSONArray("organizationMemberships").length());
+        assertEquals(5, plugin.call("listSessions").getJSONArray("sessions").length());
+    }
+
+    @Test
+    public void concurrentLoadsShareOneRequest() throws Exception {
+        api.latency(100, 0);
+        startPlugin();
+
+        RecordingPluginCall first = plugin.invoke("load");
+        RecordingPluginCall second = plugin.invoke("load");
+
+        assertEquals(SMALL_USER_ID, userId(first.awaitResult()));
+        assertEquals(SMALL_USER_ID, userId(second.awaitResult()));
+        assertEquals(1, api.count("POST /v1/client"));
+    }
+
+    @Test
+    public void unchangedClientIsNotFetchedAgain() throws Exception {
+        api.etags(true);
+        startPlugin();
+        plugin.call("load");
+
+        // The first revalidation picks up the ETag, the second is answered with a 304
+        for (int i = 1; i <= 2; i++) {
+            plugin.call("load");
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (api.count("GET /v1/client") < i && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            Thread.sleep(100);
+        }
+
+        JSObject clientCache = plugin.call("getMetrics").getJSObject("clientCache");
+        assertEquals(2, api.count("GET /v1/client"));
+        assertEquals(1, clientCache.getInteger("hits").intValue());
+        assertEquals(SMALL_USER_ID, userId(plugin.call("getUser")));
+    }
+
+    @Test
+    public void signInWithPasswordTakesOneRoundTrip() throws Exception {
+        api.signedOut(true);
+        startPlugin();
+        assertEquals(JSONObject.NULL, plugin.call("load").get("user"));
+
+        JSObject result = plugin.signInWithPassword("ada@example.com", "correct horse");
+
+        assertEquals(SMALL_USER_ID, userId(result));
+        assertEquals(1, api.count("POST /v1/client/sign_ins"));
+        assertEquals(0, api.countMatching("POST /v1/client/sign_ins/"));
+    }
+
+    @Test
+    public void signInWithPasswordFallsBackToFirstFactorAttempt() throws Exception {
+        api.signedOut(true).singleRoundTripSignIn(false);
+        startPlugin();
+        plugin.call("load");
+
+        JSObject result = plugin.signInWithPassword("ada@example.com", "correct horse");
+
+        assertEquals(SMALL_USER_ID, userId(result));
+        assertEquals(1, api.count("POST /v1/client/sign_ins"));
+        assertEquals(1, api.countMatching("POST /v1/client/sign_ins/"));
+    }
+
+    @Test
+    public void getTokenServesFreshTokenFromMemory() throws Exception {
+        startPlugin();
+        plugin.call("load");
+
+        String token = plugin.call("getToken").getString("token");
+
+        assertNotNull(token);
+        assertEquals(0, api.countMatching("POST /v1/client/sessions/"));
+        assertEquals(token, plugin.events("tokenChanged").get(0).data.getString("token"));
+    }
+
+    @Test
+    public void getTokenRefreshesExpiredToken() throws Exception {
+        // Inside the expiry margin as soon as it is issued
+        api.tokenTtlMs(1_000);
+        startPlugin();
+        plugin.call("load");
+        String loaded = plugin.events("tokenChanged").get(0).data.getString("token");
+
+        String token = plugin.call("getToken").getString("token");
+
+        assertNotEquals(loaded, token);
+        assertTrue(api.count("POST /v1/client/sessions/" + SMALL_SESSION_ID + "/tokens") >= 1);
+    }
+
+    @Test
+    public void getTokenEncodesTemplateNameAndCachesResult() throws Exception {
+        startPlugin();
+        plugin.call("load");
+        JSObject options = new JSObject().put("template", "hasura v2/prod");
+
+        String token = plugin.call("getToken", options).getString("token");
+
+        assertNotNull(token);
+        assertEquals(1, api.count("POST /v1/client/sessions/" + SMALL_SESSION_ID + "/tokens/hasura%20v2%2Fprod"));
+        assertEquals(token, plugin.call("getToken", options).getString("token"));
+        assertEquals(1, api.countMatching("POST /v1/client/sessions/"));
+    }
+
+    @Test
+    public void restoredSessionIsNotRefreshedBeforeConfigure() throws Exception {
+        // Persist a session whose token is due for a refresh right away
+        api.tokenTtlMs(1_000);
+        startPlugin();
+        plugin.call("load");
+        plugin.destroy();
+        int before = api.countMatching("POST /v1/client/sessions/");
+
+        plugin = TestClerkPlugin.start(server);
+        Thread.sleep(1_500);
+        assertEquals(before, api.countMatching("POST /v1/client/sessions/"));
+        assertTrue(plugin.invoke("getToken").awaitError().contains("configure()"));
+
+        plugin.configure();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (api.countMatching("POST /v1/client/sessions/") == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(api.countMatching("POST /v1/client/sessions/") > before);
+    }
+
+    @Test
+    public void failedBackgroundRefreshIsRetried() throws Exception {
+        api.tokenTtlMs(1_000);
+        // Keep the circuit closed so the retry reaches the server
+        plugin = TestClerkPlugin.start(server, Collections.singletonMap("circuitFailureThreshold", 100));
+        plugin.configure();
+        plugin.call("load");
+        api.errorRate(1.0);
+        Thread.sleep(1_500);
+        api.errorRate(0);
+        int before = api.countMatching("POST /v1/client/sessions/");
+
+        // Retried after the retry delay rather than left with a dead token
+        Thread.sleep(6_000);
+        assertTrue(api.countMatching("POST /v1/client/sessions/") > before);
+    }
+
+    @Test
+    public void rejectedBackgroundRefreshEndsSession() throws Exception {
+        api.tokenTtlMs(1_000);
+        startPlugin();
+        plugin.call("load");
+        api.sessionRevoked(true);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (plugin.events("sessionEnded").isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        int refreshes = api.countMatching("POST /v1/client/sessions/");
+
+        assertEquals(SMALL_SESSION_ID, plugin.events("sessionEnded").get(0).data.getString("sessionId"));
+        assertEquals(JSONObject.NULL, plugin.call("getUser").get("user"));
+        // Nothing left to refresh, rather than a retry every few seconds
+        Thread.sleep(6_000);
+        assertEquals(refreshes, api.countMatching("POST /v1/client/sessions/"));
+    }
+
+    @Test
+    public void backgroundedAppDefersRefreshUntilResumeSettles() throws Exception {
+        // Due for a refresh two to three seconds after it's issued
+        api.tokenTtlMs(13_000);
+        startPlugin();
+        plugin.call("load");
+        plugin.pause();
+        int before = api.countMatching("POST /v1/client/sessions/");
+
+        Thread.sleep(3_500);
+        assertEquals(before, api.countMatching("POST /v1/client/sessions/"));
+
+        // Switching straight back out cancels the refresh
+        plugin.resume();
+        Thread.sleep(500);
+        plugin.pause();
+        Thread.sleep(2_000);
+        assertEquals(before, api.countMatching("POST /v1/client/sessions/"));
+
+        plugin.resume();
+        Thread.sleep(2_500);
+        assertEquals(before + 1, api.countMatching("POST /v1/client/sessions/"));
+    }
+
+    @Test
+    public void healthyTokenIsNotRefreshedOnResume() throws Exception {
+        startPlugin();
+        plugin.call("load");
+        int before = api.countMatching("POST /v1/client/sessions/");
+
+        plugin.pause();
+        plugin.resume();
+        Thread.sleep(2_500);
+
+        assertEquals(before, api.countMatching("POST /v1/client/sessions/"));
+    }
+
+    @Test
+    public void connectivityRevalidationWaitsForResume() throws Exception {
+        // Keep the circuit closed so the failure is reported as a network error
+        plugin = TestClerkPlugin.start(server, Collections.singletonMap("circuitFailureThreshold", 100));
+        plugin.configure();
+        plugin.call("load");
+        awaitJwks();
+        ConnectivityManager manager =
+            (ConnectivityManager) RuntimeEnvironment.getApplication().getSystemService(Context.CONNECTIVITY_SERVICE);
+        ShadowConnectivityManager connectivity = Shadows.shadowOf(manager);
+        NetworkInfo online = manager.getActiveNetworkInfo();
+        connectivity.setActiveNetworkInfo(null);
+        api.unreachable(true);
+
+        // Served from memory; the background revalidation fails and waits for a network
+        assertEquals(SMALL_USER_ID, userId(plugin.call("load")));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (connectivity.getNetworkCallbacks().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, connectivity.getNetworkCallbacks().size());
+        int before = api.count("GET /v1/client");
+
+        plugin.pause();
+        api.unreachable(false);
+        connectivity.setActiveNetworkInfo(online);
+        for (ConnectivityManager.NetworkCallback callback : new ArrayList<>(connectivity.getNetworkCallbacks())) {
+            callback.onAvailable(ShadowNetwork.newInstance(1));
+        }
+        Thread.sleep(500);
+        assertEquals(before, api.count("GET /v1/client"));
+
+        plugin.resume();
+        deadline = System.currentTimeMillis() + 5_000;
+        while (api.count("GET /v1/client") == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(100);
+        assertEquals(before + 1, api.count("GET /v1/client"));
+        assertTrue(connectivity.getNetworkCallbacks().isEmpty());
+    }
+
+    @Test
+    public void clientUnknownToClerkIsReplaced() throws Exception {
+        startPlugin();
+        plugin.call("load");
+        api.clientGone(true);
+
+        // Answered from the persisted session, then revalidated in the background
+        assertEquals(SMALL_USER_ID, userId(plugin.call("load")));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (api.count("POST /v1/client") < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(100);
+
+        assertEquals(2, api.count("POST /v1/client"));
+        assertEquals(JSONObject.NULL, plugin.call("getUser").get("user"));
+        assertEquals(SMALL_SESSION_ID, plugin.events("sessionEnded").get(0).data.getString("sessionId"));
+    }
+
+    @Test
+    public void stalePersistedSessionReportsVerification() throws Exception {
+        startPlugin();
+        plugin.call("load");
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (api.count("GET /.well-known/jwks.json") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(100);
+        plugin.destroy();
+
+        plugin = TestClerkPlugin.start(server);
+        plugin.configure();
+        JSObject result = plugin.call("load");
+
+        assertTrue(result.getBoolean("stale"));
+        assertTrue(result.getBoolean("authentic"));
+        // Issued a moment ago with a minute to live
+        assertTrue(result.getBoolean("verified"));
+        assertTrue(result.getLong("issuedAt") <= System.currentTimeMillis() + 1_000);
+    }
+
+    @Test
+    public void concurrentRefreshesPersistAndAnnounceLatestToken() throws Exception {
+        api.latency(5, 20);
+        startPlugin();
+        plugin.call("load");
+
+        List<RecordingPluginCall> calls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            calls.add(plugin.invoke(i % 2 == 0 ? "refreshSession" : "load"));
+        }
+        for (RecordingPluginCall call : calls) {
+            call.awaitResult();
+        }
+        // Let the background revalidations from load() land
+        Thread.sleep(500);
+
+        List<TestClerkPlugin.Event> changes = plugin.events("tokenChanged");
+        String announced = changes.get(changes.size() - 1).data.getString("token");
+        assertEquals(announced, plugin.call("getToken").getString("token"));
+        plugin.destroy();
+
+        plugin = TestClerkPlugin.start(server);
+        plugin.configure();
+        assertEquals(announced, plugin.call("getToken").getString("token"));
+    }
+
+    @Test
+    public void listedSessionsFollowActiveToken() throws Exception {
+        api.clientFixture(Fixtures.CLIENT_LARGE);
+        startPlugin();
+        plugin.call("load");
+        String active = plugin.call("listSessions").getString("activeSessionId");
+        String other = null;
+        for (int i = 0; other == null; i++) {
+            String id = plugin.call("listSessions").getJSONArray("sessions").getJSONObject(i).getString("id");
+            other = id.equals(active) ? null : id;
+        }
+
+        String refreshed = plugin.call("refreshSession").getString("token");
+        plugin.call("setActiveSession", new JSObject().put("sessionId", other));
+        plugin.call("setActiveSession", new JSObject().put("sessionId", active));
+
+        // Switching back serves the refreshed token without another request
+        int before = api.countMatching("POST /v1/client/sessions/");
+        assertEquals(refreshed, plugin.call("getToken").getString("token"));
+        assertEquals(before, api.countMatching("POST /v1/client/sessions/"));
+    }
+
+    @Test
+    public void serverClockEstimateIsRestored() throws Exception {
+        startPlugin();
+        plugin.call("load");
+        plugin.destroy();
+
+        // Not configured, so nothing has gone over the network yet
+        plugin = TestClerkPlugin.start(server);
+        plugin.call("getUser");
+
+        assertTrue(plugin.call("getMetrics").getJSObject("serverClock").getLong("samples") > 0);
+    }
+
+    private void awaitJwks() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (api.count("GET /.well-known/jwks.json") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(100);
+    }
+
+    @Test
+    public void invalidPersistedTokenIsNotConfirmedByNotModified() throws Exception {
+        api.etags(true);
+        startPlugin();
+        plugin.call("load");
+        awaitJwks();
+        // Revalidate once more so the ETag is persisted
+        plugin.call("load");
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (api.count("GET /v1/client") < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(100);
+        plugin.destroy();
+
+        File stateFile = new File(RuntimeEnvironment.getApplication().getFilesDir(), "clerk_native_state.json");
+        JSONObject state = new JSONObject(new String(Files.readAllBytes(stateFile.toPath()), StandardCharsets.UTF_8));
+        state.put("session_token", "a.b.c");
+        Files.write(stateFile.toPath(), state.toString().getBytes(StandardCharsets.UTF_8));
+
+        plugin = TestClerkPlugin.start(server);
+        plugin.configure();
+        JSObject result = plugin.call("load");
+
+        assertFalse(result.getBoolean("stale"));
+        assertEquals(SMALL_USER_ID, userId(result));
+    }
+
+    @Test
+    public void signingKeysSurviveSignOut() throws Exception {
+        startPlugin();
+        plugin.call("load");
+        awaitJwks();
+        plugin.call("signOut");
+        plugin.signInWithPassword("ada@example.com", "correct horse");
+        Thread.sleep(100);
+        plugin.destroy();
+
+        plugin = TestClerkPlugin.start(server);
+        plugin.configure();
+        JSObject result = plugin.call("load");
+
+        assertTrue(result.getBoolean("stale"));
+        assertTrue(result.getBoolean("authentic"));
+        assertEquals(1, api.count("GET /.well-known/jwks.json"));
+    }
+
+    @Test
+    public void signOutEndsSession() throws Exception {
+        startPlugin();
+        plugin.call("load");
+
+        plugin.call("signOut");
+
+        assertEquals(1, api.count("DELETE /v1/client/sessions"));
+        assertEquals(JSONObject.NULL, plugin.call("getUser").get("user"));
+        assertEquals(SMALL_SESSION_ID, plugin.events("sessionEnded").get(0).data.getString("sessionId"));
+    }
+}
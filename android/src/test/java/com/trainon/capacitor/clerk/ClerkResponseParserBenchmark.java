@@ -0,0 +1,69 @@
+package com.trainon.capacitor.clerk;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import okio.Buffer;
+
+/**
+ * Parsing a recorded GET /v1/client response: the streaming parser against the JSONObject
+ * tree it replaced, and converting the parsed user for the bridge.
+ *
+ * Run by {@link ClerkResponseParserBenchmarkTest}. Robolectric instruments the framework
+ * classes (JsonReader, JSONObject), so compare the numbers with each other and across
+ * commits, not with a device.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClerkResponseParserBenchmark {
+
+    @Param({ Fixtures.CLIENT_SMALL, Fixtures.CLIENT_LARGE })
+    public String fixture;
+
+    private byte[] body;
+    private String text;
+    private ClerkUser user;
+
+    @Setup
+    public void setUp() {
+        body = Fixtures.bytes(fixture);
+        text = new String(body, StandardCharsets.UTF_8);
+        try {
+            user = ClerkResponseParser.parse(new Buffer().write(body)).response.lastActiveSession().user;
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable fixture " + fixture, e);
+        }
+    }
+
+    @Benchmark
+    public ClerkResponse streaming() throws Exception {
+        return ClerkResponseParser.parse(new Buffer().write(body));
+    }
+
+    @Benchmark
+    public ClerkResponse tree() throws Exception {
+        return ClerkResponseParser.parse(new JSONObject(text));
+    }
+
+    /**
+     * Building the getUser() result with every optional field, without the projection cache.
+     */
+    @Benchmark
+    public JSObject convertUser() {
+        return new UserProjectionCache().get(user,
+            UserProjectionCache.PHONE_NUMBERS | UserProjectionCache.ORGANIZATIONS | UserProjectionCache.PUBLIC_METADATA);
+    }
+}
@@ -0,0 +1,49 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collection;
+import java.util.Locale;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Runs {@link ClerkResponseParserBenchmark} in-process, since the parser needs the Android
+ * classes Robolectric provides. A few short iterations by default; proper warmup and
+ * measurement with -PclerkBenchmarks=true.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ClerkResponseParserBenchmarkTest {
+
+    @Test
+    public void parserBenchmarks() throws Exception {
+        Options options = new OptionsBuilder()
+            .include(ClerkResponseParserBenchmark.class.getName() + "\\.")
+            .forks(0)
+            .warmupIterations(Benchmarks.iterations(1, 5))
+            .warmupTime(TimeValue.milliseconds(Benchmarks.iterations(100, 1_000)))
+            .measurementIterations(Benchmarks.iterations(2, 10))
+            .measurementTime(TimeValue.milliseconds(Benchmarks.iterations(100, 1_000)))
+            .shouldFailOnError(true)
+            .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        // Four benchmarks for each fixture
+        assertEquals(6, results.size());
+        for (RunResult result : results) {
+            Benchmarks.report(String.format(Locale.ROOT, "%-40s %-18s %10.2f %s",
+                result.getParams().getBenchmark().replace(ClerkResponseParserBenchmark.class.getName() + ".", "parser."),
+                result.getParams().getParam("fixture"),
+                result.getPrimaryResult().getScore(),
+                result.getPrimaryResult().getScoreUnit()));
+        }
+    }
+}
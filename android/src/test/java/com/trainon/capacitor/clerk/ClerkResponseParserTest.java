@@ -0,0 +1,117 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import okio.Buffer;
+
+@RunWith(RobolectricTestRunner.class)
+public class ClerkResponseParserTest {
+
+    private static ClerkResponse stream(String json) throws Exception {
+        return ClerkResponseParser.parse(new Buffer().writeUtf8(json));
+    }
+
+    private static ClerkResponse tree(String json) throws Exception {
+        return ClerkResponseParser.parse(new JSONObject(json));
+    }
+
+    private static void assertSameResource(ClerkResource expected, ClerkResource actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(expected.id, actual.id);
+        assertEquals(expected.status, actual.status);
+        assertEquals(expected.lastActiveSessionId, actual.lastActiveSessionId);
+        assertEquals(expected.hasVerifications, actual.hasVerifications);
+        assertEquals(expected.sessions.size(), actual.sessions.size());
+        for (int i = 0; i < expected.sessions.size(); i++) {
+            ClerkSession expectedSession = expected.sessions.get(i);
+            ClerkSession actualSession = actual.sessions.get(i);
+            assertEquals(expectedSession.id, actualSession.id);
+            assertEquals(expectedSession.status, actualSession.status);
+            assertEquals(expectedSession.jwt, actualSession.jwt);
+            assertEquals(expectedSession.user, actualSession.user);
+        }
+    }
+
+    private static void assertStreamingMatchesTree(String fixture) throws Exception {
+        String json = Fixtures.string(fixture);
+        ClerkResponse streamed = stream(json);
+        ClerkResponse parsed = tree(json);
+        assertSameResource(parsed.response, streamed.response);
+        assertSameResource(parsed.client, streamed.client);
+    }
+
+    @Test
+    public void streamingMatchesTreeOnRecordedResponses() throws Exception {
+        assertStreamingMatchesTree(Fixtures.CLIENT_SMALL);
+        assertStreamingMatchesTree(Fixtures.CLIENT_LARGE);
+        assertStreamingMatchesTree(Fixtures.SIGN_IN_COMPLETE);
+        assertStreamingMatchesTree(Fixtures.SIGN_IN_NEEDS_FIRST_FACTOR);
+    }
+
+    @Test
+    public void readsLargeClient() throws Exception {
+        ClerkResource client = stream(Fixtures.string(Fixtures.CLIENT_LARGE)).response;
+
+        assertEquals(5, client.sessions.size());
+        ClerkSession active = client.lastActiveSession();
+        assertEquals("sess_201rVG3PJMbtNyMytErgjUB6aE0", active.id);
+        assertEquals(Fixtures.SESSION_TOKEN_PLACEHOLDER, active.jwt);
+        assertEquals("user_2RsBulL510E6XTnjVycFxpmceZ7", active.user.id);
+        assertEquals(40, active.user.organizationMemberships.size());
+    }
+
+    @Test
+    public void readsSignInStatus() throws Exception {
+        ClerkResponse needsFactor = stream(Fixtures.string(Fixtures.SIGN_IN_NEEDS_FIRST_FACTOR));
+        assertEquals("needs_first_factor", needsFactor.response.status);
+        assertTrue(needsFactor.client.sessions.isEmpty());
+
+        ClerkResponse complete = stream(Fixtures.string(Fixtures.SIGN_IN_COMPLETE));
+        assertEquals("complete", complete.response.status);
+        assertEquals("sess_2P7lyHv4El59xzq8IrUPTolOi08", complete.client.lastActiveSession().id);
+    }
+
+    @Test
+    public void readsBareStringToken() throws Exception {
+        String json = "{\"response\":{\"id\":\"client_1\",\"sessions\":[{\"id\":\"sess_1\",\"status\":\"active\","
+            + "\"last_active_token\":\"jwt-as-string\",\"user\":{\"id\":\"user_1\"}}]},\"client\":null}";
+
+        ClerkSession session = stream(json).response.sessions.get(0);
+
+        assertEquals("jwt-as-string", session.jwt);
+        assertSameResource(tree(json).response, stream(json).response);
+    }
+
+    @Test
+    public void nullResourcesStayNull() throws Exception {
+        ClerkResponse response = stream("{\"response\":null,\"client\":null}");
+
+        assertNull(response.response);
+        assertNull(response.client);
+    }
+
+    @Test
+    public void unexpectedShapeFallsBackToTree() throws Exception {
+        // A non-numeric updated_at trips the streaming reader's nextLong()
+        String json = "{\"response\":{\"id\":\"client_1\",\"sessions\":[{\"id\":\"sess_1\","
+            + "\"user\":{\"id\":\"user_1\",\"updated_at\":\"yesterday\"}}]},\"client\":null}";
+
+        ClerkResource client = stream(json).response;
+
+        assertEquals("client_1", client.id);
+        assertEquals("user_1", client.sessions.get(0).user.id);
+        assertEquals(0, client.sessions.get(0).user.updatedAt);
+        assertFalse(client.hasVerifications);
+    }
+}
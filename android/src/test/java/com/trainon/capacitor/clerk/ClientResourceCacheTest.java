@@ -0,0 +1,98 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+public class ClientResourceCacheTest {
+
+    private static final Request REQUEST = new Request.Builder().url("https://clerk.example.com/v1/client").build();
+
+    private final ClientResourceCache cache = new ClientResourceCache();
+
+    private static Response response(int code, String etag, String lastModified) {
+        Response.Builder builder = new Response.Builder()
+            .request(REQUEST)
+            .protocol(Protocol.HTTP_1_1)
+            .code(code)
+            .message(code == 304 ? "Not Modified" : "OK");
+        if (etag != null) {
+            builder.header("ETag", etag);
+        }
+        if (lastModified != null) {
+            builder.header("Last-Modified", lastModified);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void sendsNoValidatorsUntilStored() {
+        Request request = cache.addValidators(new Request.Builder().url(REQUEST.url())).build();
+
+        assertNull(request.header("If-None-Match"));
+        assertNull(request.header("If-Modified-Since"));
+    }
+
+    @Test
+    public void sendsStoredValidators() {
+        cache.store(response(200, "\"v1\"", "Sat, 17 Oct 2026 10:00:00 GMT"));
+
+        Request request = cache.addValidators(new Request.Builder().url(REQUEST.url())).build();
+
+        assertEquals("\"v1\"", request.header("If-None-Match"));
+        assertEquals("Sat, 17 Oct 2026 10:00:00 GMT", request.header("If-Modified-Since"));
+    }
+
+    @Test
+    public void notModifiedIsUnchanged() {
+        cache.store(response(200, "\"v1\"", null));
+
+        assertTrue(cache.isUnchanged(response(304, "\"v1\"", null)));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void fullResponseIsAMiss() {
+        cache.store(response(200, "\"v1\"", null));
+
+        assertFalse(cache.isUnchanged(response(200, "\"v1\"", null)));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void notModifiedWithoutStoredValidatorsIsAMiss() {
+        // Nothing was asked for, so a 304 can't be vouching for the state in memory
+        assertFalse(cache.isUnchanged(response(304, null, null)));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void clearForgetsValidators() {
+        cache.store(response(200, "\"v1\"", "Sat, 17 Oct 2026 10:00:00 GMT"));
+
+        cache.clear();
+
+        assertNull(cache.getEtag());
+        assertNull(cache.getLastModified());
+        assertNull(cache.addValidators(new Request.Builder().url(REQUEST.url())).build().header("If-None-Match"));
+    }
+
+    @Test
+    public void restoreRoundTripsPersistedValidators() {
+        cache.store(response(200, "\"v1\"", "Sat, 17 Oct 2026 10:00:00 GMT"));
+        ClientResourceCache restored = new ClientResourceCache();
+
+        restored.restore(cache.getEtag(), cache.getLastModified());
+
+        Request request = restored.addValidators(new Request.Builder().url(REQUEST.url())).build();
+        assertEquals("\"v1\"", request.header("If-None-Match"));
+        assertEquals("Sat, 17 Oct 2026 10:00:00 GMT", request.header("If-Modified-Since"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.trainon.capacitor.clerk;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Recorded Frontend API responses under src/test/resources/fixtures.
+ *
+ * Session tokens in the recordings are replaced by the __SESSION_TOKEN__ placeholder, which
+ * {@link MockFrontendApi} fills in with a freshly signed token when serving them.
+ */
+final class Fixtures {
+
+    static final String CLIENT_SMALL = "client_small.json";
+    static final String CLIENT_LARGE = "client_large.json";
+    static final String SIGN_IN_COMPLETE = "sign_in_complete.json";
+    static final String SIGN_IN_NEEDS_FIRST_FACTOR = "sign_in_needs_first_factor.json";
+
+    static final String SESSION_TOKEN_PLACEHOLDER = "__SESSION_TOKEN__";
+
+    private Fixtures() {}
+
+    static byte[] bytes(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No fixture named " + name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String string(String name) {
+        return new String(bytes(name), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,63 @@
+package com.trainon.capacitor.clerk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Latency samples of one operation, reported as percentiles and throughput.
+ */
+final class LatencyStats {
+
+    private final String name;
+    private final List<Long> samplesNanos = new ArrayList<>();
+
+    LatencyStats(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(long nanos) {
+        samplesNanos.add(nanos);
+    }
+
+    synchronized int count() {
+        return samplesNanos.size();
+    }
+
+    /**
+     * Nearest-rank percentile in milliseconds.
+     */
+    synchronized double percentileMs(double p) {
+        if (samplesNanos.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(samplesNanos);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(p * sorted.size());
+        return sorted.get(Math.max(0, rank - 1)) / 1e6;
+    }
+
+    synchronized double meanMs() {
+        if (samplesNanos.isEmpty()) {
+            return 0;
+        }
+        long total = 0;
+        for (long sample : samplesNanos) {
+            total += sample;
+        }
+        return total / 1e6 / samplesNanos.size();
+    }
+
+    String summary() {
+        return String.format(Locale.ROOT, "%-36s n=%5d  p50=%8.2fms  p99=%8.2fms  mean=%8.2fms",
+            name, count(), percentileMs(0.50), percentileMs(0.99), meanMs());
+    }
+
+    /**
+     * The summary plus calls per second over the given wall time.
+     */
+    String summary(long wallNanos) {
+        return summary() + String.format(Locale.ROOT, "  %9.1f calls/s", count() / (wallNanos / 1e9));
+    }
+}
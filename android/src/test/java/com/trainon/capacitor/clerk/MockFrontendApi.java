@@ -0,0 +1,300 @@
+package com.trainon.capacitor.clerk;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.Headers;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+/**
+ * Stand-in for Clerk's Frontend API, answering from the recorded fixtures.
+ *
+ * Latency and an error rate can be dialled in to see how the plugin behaves on a slow or
+ * flaky link. Session tokens are signed with {@link TestTokens}, so they pass the plugin's
+ * offline verification once it has fetched the JWKS from here.
+ */
+final class MockFrontendApi extends Dispatcher {
+
+    private static final Pattern ATTEMPT_FIRST_FACTOR = Pattern.compile("^/v1/client/sign_ins/[^/]+/attempt_first_factor$");
+    private static final String SIGNED_OUT_CLIENT =
+        "{\"response\":{\"object\":\"client\",\"id\":\"client_2signedout0000000000000000\",\"sessions\":[],\"last_active_session_id\":null},\"client\":null}";
+    private static final Pattern SESSION_TOKEN = Pattern.compile("^/v1/client/sessions/([^/]+)/tokens(/[^/]+)?$");
+
+    /**
+     * A fixture with the session its token placeholder belongs to.
+     */
+    private static final class Template {
+
+        final String body;
+        final String sessionId;
+        final String userId;
+
+        Template(String body, String sessionId, String userId) {
+            this.body = body;
+            this.sessionId = sessionId;
+            this.userId = userId;
+        }
+    }
+
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final Random random = new Random(42);
+
+    private volatile String clientFixture = Fixtures.CLIENT_SMALL;
+    private volatile boolean signedOut;
+    private volatile boolean clientGone;
+    private volatile boolean sessionRevoked;
+    private volatile boolean etags;
+    private volatile boolean unreachable;
+    private volatile boolean singleRoundTripSignIn = true;
+    private volatile long latencyMs;
+    private volatile long jitterMs;
+    private volatile double errorRate;
+    private volatile long tokenTtlMs = 60_000;
+
+    MockFrontendApi clientFixture(String name) {
+        clientFixture = name;
+        return this;
+    }
+
+    /**
+     * Added before the response headers of every request, plus a random amount up to jitterMs.
+     */
+    MockFrontendApi latency(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        return this;
+    }
+
+    /**
+     * Fraction of requests answered with a 503.
+     */
+    MockFrontendApi errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Whether a sign-in created with a password completes right away, or asks for the first
+     * factor to be attempted separately as Clerk used to.
+     */
+    MockFrontendApi singleRoundTripSignIn(boolean enabled) {
+        singleRoundTripSignIn = enabled;
+        return this;
+    }
+
+    MockFrontendApi tokenTtlMs(long ttlMs) {
+        tokenTtlMs = ttlMs;
+        return this;
+    }
+
+    /**
+     * Serves the client without any session, as after a sign-out elsewhere.
+     */
+    MockFrontendApi signedOut(boolean signedOut) {
+        this.signedOut = signedOut;
+        return this;
+    }
+
+    /**
+     * Answers GET /v1/client with a null response, as Clerk does for a client it no longer
+     * knows. New clients are created signed out.
+     */
+    MockFrontendApi clientGone(boolean clientGone) {
+        this.clientGone = clientGone;
+        return this;
+    }
+
+    /**
+     * Treats the session as revoked elsewhere: its token endpoint answers 401 and the client has
+     * no sessions left.
+     */
+    MockFrontendApi sessionRevoked(boolean sessionRevoked) {
+        this.sessionRevoked = sessionRevoked;
+        return this;
+    }
+
+    /**
+     * Sends an ETag with GET /v1/client and answers a matching If-None-Match with a 304. The
+     * tag changes whenever the client would.
+     */
+    MockFrontendApi etags(boolean etags) {
+        this.etags = etags;
+        return this;
+    }
+
+    /**
+     * Drops the connection of every request without answering, as if the device were offline.
+     * Dropped requests aren't counted.
+     */
+    MockFrontendApi unreachable(boolean unreachable) {
+        this.unreachable = unreachable;
+        return this;
+    }
+
+    /**
+     * Requests received for a method and path, e.g. "POST /v1/client/sign_ins".
+     */
+    int count(String endpoint) {
+        AtomicInteger count = requestCounts.get(endpoint);
+        return count != null ? count.get() : 0;
+    }
+
+    int countMatching(String prefix) {
+        int total = 0;
+        for (Map.Entry<String, AtomicInteger> entry : requestCounts.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                total += entry.getValue().get();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        if (unreachable) {
+            return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+        }
+        String method = request.getMethod();
+        String path = request.getRequestUrl().encodedPath();
+        String endpoint = method + " " + path;
+        AtomicInteger count = requestCounts.get(endpoint);
+        if (count == null) {
+            requestCounts.putIfAbsent(endpoint, new AtomicInteger());
+            count = requestCounts.get(endpoint);
+        }
+        count.incrementAndGet();
+
+        MockResponse response = route(method, path, request.getBody().readUtf8(), request.getHeader("If-None-Match"));
+        long delayMs = latencyMs;
+        synchronized (random) {
+            if (jitterMs > 0) {
+                delayMs += (long) (random.nextDouble() * jitterMs);
+            }
+            if (errorRate > 0 && random.nextDouble() < errorRate && !method.equals("HEAD")) {
+                response = json(503, "{\"errors\":[{\"message\":\"Service unavailable\",\"code\":\"service_unavailable\"}]}");
+            }
+        }
+        if (delayMs > 0) {
+            response.setHeadersDelay(delayMs, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private MockResponse route(String method, String path, String body, String ifNoneMatch) {
+        if (method.equals("HEAD") && path.equals("/v1/environment")) {
+            return new MockResponse();
+        }
+        if (method.equals("GET") && path.equals("/.well-known/jwks.json")) {
+            return json(200, TestTokens.jwks());
+        }
+        if (path.equals("/v1/client") && method.equals("GET") && clientGone) {
+            return json(200, "{\"response\":null,\"client\":null}");
+        }
+        if (path.equals("/v1/client") && method.equals("GET") && etags) {
+            boolean signedOutClient = signedOut || clientGone || sessionRevoked;
+            String etag = "\"" + (signedOutClient ? "signed-out" : clientFixture) + "\"";
+            MockResponse response = etag.equals(ifNoneMatch)
+                ? new MockResponse().setResponseCode(304)
+                : json(200, signedOutClient ? SIGNED_OUT_CLIENT : render(clientFixture));
+            return response.setHeader("ETag", etag);
+        }
+        if (path.equals("/v1/client") && (method.equals("GET") || method.equals("POST"))) {
+            return json(200, signedOut || clientGone || sessionRevoked ? SIGNED_OUT_CLIENT : render(clientFixture));
+        }
+        if (method.equals("DELETE") && path.equals("/v1/client/sessions")) {
+            return json(200, "{\"response\":{\"object\":\"client\",\"id\":\"client_2signedout0000000000000000\",\"sessions\":[]},\"client\":null}");
+        }
+        if (method.equals("POST") && path.equals("/v1/client/sign_ins")) {
+            boolean withPassword = body.contains("\"password\"");
+            return json(200, render(withPassword && singleRoundTripSignIn ? Fixtures.SIGN_IN_COMPLETE : Fixtures.SIGN_IN_NEEDS_FIRST_FACTOR));
+        }
+        if (method.equals("POST") && ATTEMPT_FIRST_FACTOR.matcher(path).matches()) {
+            return json(200, render(Fixtures.SIGN_IN_COMPLETE));
+        }
+        Matcher token = SESSION_TOKEN.matcher(path);
+        if (method.equals("POST") && token.matches() && sessionRevoked) {
+            return json(401, "{\"errors\":[{\"message\":\"Unauthorized request\",\"code\":\"authentication_invalid\"}]}");
+        }
+        if (method.equals("POST") && token.matches()) {
+            String sessionId = token.group(1);
+            return json(200, "{\"object\":\"token\",\"jwt\":\"" + TestTokens.sessionToken(sessionId, userIdFor(sessionId), tokenTtlMs) + "\"}");
+        }
+        return json(404, "{\"errors\":[{\"message\":\"Not found\",\"code\":\"resource_not_found\"}]}");
+    }
+
+    private static MockResponse json(int code, String body) {
+        return new MockResponse()
+            .setResponseCode(code)
+            // Clerk dates every response; the plugin estimates its clock from it
+            .setHeaders(new Headers.Builder()
+                .add("Content-Type", "application/json")
+                .add("Date", new Date())
+                .build())
+            .setBody(body);
+    }
+
+    private String render(String fixture) {
+        Template template = template(fixture);
+        if (template.sessionId == null) {
+            return template.body;
+        }
+        String token = TestTokens.sessionToken(template.sessionId, template.userId, tokenTtlMs);
+        return template.body.replace(Fixtures.SESSION_TOKEN_PLACEHOLDER, token);
+    }
+
+    private String userIdFor(String sessionId) {
+        for (Template template : templates.values()) {
+            if (sessionId.equals(template.sessionId)) {
+                return template.userId;
+            }
+        }
+        return "user_2unknown000000000000000000";
+    }
+
+    private Template template(String fixture) {
+        Template template = templates.get(fixture);
+        if (template == null) {
+            template = parseTemplate(Fixtures.string(fixture));
+            templates.put(fixture, template);
+        }
+        return template;
+    }
+
+    // Finds the session whose last_active_token is the placeholder
+    private static Template parseTemplate(String body) {
+        try {
+            JSONObject envelope = new JSONObject(body);
+            for (String resource : new String[] { "response", "client" }) {
+                JSONObject object = envelope.optJSONObject(resource);
+                JSONArray sessions = object != null ? object.optJSONArray("sessions") : null;
+                if (sessions == null) {
+                    continue;
+                }
+                for (int i = 0; i < sessions.length(); i++) {
+                    JSONObject session = sessions.getJSONObject(i);
+                    JSONObject token = session.optJSONObject("last_active_token");
+                    if (token != null && Fixtures.SESSION_TOKEN_PLACEHOLDER.equals(token.optString("jwt"))) {
+                        return new Template(body, session.getString("id"), session.getJSONObject("user").getString("id"));
+                    }
+                }
+            }
+            return new Template(body, null, null);
+        } catch (JSONException e) {
+            throw new IllegalStateException("Unreadable fixture", e);
+        }
+    }
+}
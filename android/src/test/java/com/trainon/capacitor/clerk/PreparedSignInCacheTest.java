@@ -0,0 +1,68 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PreparedSignInCacheTest {
+
+    private static final String CLIENT = "client_2P7lyHv4El59xzq8IrUPTolOi08";
+    private static final String SIGN_IN = "sia_2P7lyHv4El59xzq8IrUPTolOi08";
+    private static final long NOW_MS = 1_790_000_000_000L;
+
+    private final PreparedSignInCache cache = new PreparedSignInCache();
+
+    @Test
+    public void preparedSignInIsTakenOnce() {
+        cache.put("ada@example.com", SIGN_IN, CLIENT, NOW_MS);
+
+        assertTrue(cache.contains("ada@example.com", CLIENT, NOW_MS));
+        assertEquals(SIGN_IN, cache.take("ada@example.com", CLIENT, NOW_MS));
+        assertNull(cache.take("ada@example.com", CLIENT, NOW_MS));
+    }
+
+    @Test
+    public void identifierIsMatchedLoosely() {
+        cache.put(" Ada@Example.com ", SIGN_IN, CLIENT, NOW_MS);
+
+        assertEquals(SIGN_IN, cache.take("ada@example.com", CLIENT, NOW_MS));
+    }
+
+    @Test
+    public void expiredSignInIsNotUsed() {
+        cache.put("ada@example.com", SIGN_IN, CLIENT, NOW_MS);
+        long later = NOW_MS + 5 * 60 * 1000L;
+
+        assertFalse(cache.contains("ada@example.com", CLIENT, later));
+        assertNull(cache.take("ada@example.com", CLIENT, later));
+    }
+
+    @Test
+    public void signInBelongsToItsClient() {
+        cache.put("ada@example.com", SIGN_IN, CLIENT, NOW_MS);
+
+        assertFalse(cache.contains("ada@example.com", "client_2someotherclient000000000", NOW_MS));
+        // Taking it for the wrong client still discards it
+        assertNull(cache.take("ada@example.com", "client_2someotherclient000000000", NOW_MS));
+        assertNull(cache.take("ada@example.com", CLIENT, NOW_MS));
+    }
+
+    @Test
+    public void signInWithoutClientIsNotUsed() {
+        cache.put("ada@example.com", SIGN_IN, null, NOW_MS);
+
+        assertNull(cache.take("ada@example.com", null, NOW_MS));
+    }
+
+    @Test
+    public void clearDropsEverything() {
+        cache.put("ada@example.com", SIGN_IN, CLIENT, NOW_MS);
+
+        cache.clear();
+
+        assertFalse(cache.contains("ada@example.com", CLIENT, NOW_MS));
+    }
+}
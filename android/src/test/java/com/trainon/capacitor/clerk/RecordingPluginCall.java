@@ -0,0 +1,105 @@
+package com.trainon.capacitor.clerk;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A PluginCall that records how it was settled instead of answering through the bridge.
+ */
+final class RecordingPluginCall extends PluginCall {
+
+    private static final long DEFAULT_TIMEOUT_MS = 10_000;
+    private static final AtomicInteger CALLBACK_IDS = new AtomicInteger();
+
+    private final CountDownLatch settled = new CountDownLatch(1);
+    private final AtomicInteger settleCount = new AtomicInteger();
+    private final long startNanos = System.nanoTime();
+    private volatile long settledNanos;
+    private volatile JSObject result;
+    private volatile String errorMessage;
+
+    RecordingPluginCall(String methodName, JSObject data) {
+        super(null, "ClerkNative", String.valueOf(CALLBACK_IDS.incrementAndGet()), methodName, data);
+    }
+
+    @Override
+    public void resolve(JSObject data) {
+        settle(data != null ? data : new JSObject(), null);
+    }
+
+    @Override
+    public void resolve() {
+        settle(new JSObject(), null);
+    }
+
+    @Override
+    public void reject(String msg, String code, Exception ex, JSObject data) {
+        settle(null, msg != null ? msg : "");
+    }
+
+    private void settle(JSObject data, String error) {
+        // Only the first answer reaches JS. A second one is counted and fails the awaiting test,
+        // since throwing here would land on a plugin worker thread
+        if (settleCount.incrementAndGet() > 1) {
+            return;
+        }
+        settledNanos = System.nanoTime();
+        result = data;
+        errorMessage = error;
+        settled.countDown();
+    }
+
+    boolean await(long timeoutMs) throws InterruptedException {
+        return settled.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void awaitSettledOnce() throws InterruptedException {
+        if (!await(DEFAULT_TIMEOUT_MS)) {
+            throw new AssertionError(getMethodName() + " was never settled");
+        }
+        if (settleCount.get() != 1) {
+            throw new AssertionError(getMethodName() + " was settled " + settleCount.get() + " times");
+        }
+    }
+
+    /**
+     * Waits for the call to resolve and returns what it resolved with.
+     */
+    JSObject awaitResult() throws InterruptedException {
+        awaitSettledOnce();
+        if (errorMessage != null) {
+            throw new AssertionError(getMethodName() + " was rejected: " + errorMessage);
+        }
+        return result;
+    }
+
+    /**
+     * Waits for the call to be rejected and returns the message.
+     */
+    String awaitError() throws InterruptedException {
+        awaitSettledOnce();
+        if (errorMessage == null) {
+            throw new AssertionError(getMethodName() + " resolved with " + result);
+        }
+        return errorMessage;
+    }
+
+    boolean isRejected() {
+        return errorMessage != null;
+    }
+
+    /**
+     * Number of times resolve or reject was called; anything but 1 is a bug.
+     */
+    int getSettleCount() {
+        return settleCount.get();
+    }
+
+    long getLatencyNanos() {
+        return settledNanos - startNanos;
+    }
+}
@@ -0,0 +1,240 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+@RunWith(RobolectricTestRunner.class)
+public class RequestPolicyTest {
+
+    private final OkHttpClient client = new OkHttpClient();
+    private final Map<String, Object> settings = new HashMap<>();
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        settings.put("retryBaseDelayMs", 1);
+        settings.put("retryMaxDelayMs", 5);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private RequestPolicy policy() {
+        return new RequestPolicy(TestConfigs.pluginConfig(settings));
+    }
+
+    private Request get() {
+        return new Request.Builder().url(server.url("/v1/client")).build();
+    }
+
+    private Request post() {
+        return new Request.Builder().url(server.url("/v1/client/sign_ins")).post(RequestBody.create(new byte[0])).build();
+    }
+
+    private static MockResponse status(int code) {
+        return new MockResponse().setResponseCode(code);
+    }
+
+    @Test
+    public void retriesTransientFailuresOfIdempotentRequests() throws Exception {
+        server.enqueue(status(503));
+        server.enqueue(status(429));
+        server.enqueue(status(200));
+
+        try (Response response = policy().execute(get(), true, client::newCall)) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void returnsLastTransientResponseWhenRetriesRunOut() throws Exception {
+        settings.put("maxRetries", 1);
+        server.enqueue(status(503));
+        server.enqueue(status(502));
+
+        try (Response response = policy().execute(get(), true, client::newCall)) {
+            assertEquals(502, response.code());
+        }
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void doesNotRetryNonIdempotentRequests() throws Exception {
+        server.enqueue(status(503));
+
+        try (Response response = policy().execute(post(), false, client::newCall)) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void clientErrorsAreNotRetried() throws Exception {
+        server.enqueue(status(422));
+
+        try (Response response = policy().execute(get(), true, client::newCall)) {
+            assertEquals(422, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void opensCircuitAfterConsecutiveFailures() throws Exception {
+        settings.put("maxRetries", 0);
+        settings.put("circuitFailureThreshold", 2);
+        RequestPolicy policy = policy();
+        server.enqueue(status(503));
+        server.enqueue(status(503));
+
+        policy.execute(get(), true, client::newCall).close();
+        policy.execute(get(), true, client::newCall).close();
+        try {
+            policy.execute(get(), true, client::newCall).close();
+            fail("Expected the circuit to be open");
+        } catch (RequestPolicy.CircuitOpenException expected) {
+            // Failed fast
+        }
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void trialCallClosesCircuitAfterCoolDown() throws Exception {
+        settings.put("maxRetries", 0);
+        settings.put("circuitFailureThreshold", 1);
+        settings.put("circuitOpenMs", 50);
+        RequestPolicy policy = policy();
+        server.enqueue(status(503));
+        server.enqueue(status(200));
+        server.enqueue(status(200));
+
+        policy.execute(get(), true, client::newCall).close();
+        Thread.sleep(100);
+
+        try (Response response = policy.execute(get(), true, client::newCall)) {
+            assertEquals(200, response.code());
+        }
+        try (Response response = policy.execute(get(), true, client::newCall)) {
+            assertEquals(200, response.code());
+        }
+    }
+
+    @Test
+    public void canceledCallIsNotCountedOrRetried() throws Exception {
+        settings.put("circuitFailureThreshold", 1);
+        RequestPolicy policy = policy();
+        server.enqueue(status(200).setHeadersDelay(2, TimeUnit.SECONDS));
+        server.enqueue(status(200));
+        AtomicReference<Call> inFlight = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(1);
+
+        Thread canceler = new Thread(() -> {
+            try {
+                started.await();
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            inFlight.get().cancel();
+        });
+        canceler.start();
+        try {
+            policy.execute(get(), true, request -> {
+                Call call = client.newCall(request);
+                inFlight.set(call);
+                started.countDown();
+                return call;
+            }).close();
+            fail("Expected the canceled call to fail");
+        } catch (IOException expected) {
+            assertTrue(inFlight.get().isCanceled());
+        }
+        canceler.join();
+
+        assertEquals(1, server.getRequestCount());
+        // The cancellation didn't open the circuit
+        try (Response response = policy.execute(get(), true, client::newCall)) {
+            assertEquals(200, response.code());
+        }
+    }
+
+    @Test
+    public void jobDeadlineIsNotCountedOrRetried() throws Exception {
+        settings.put("circuitFailureThreshold", 1);
+        RequestPolicy policy = policy();
+        RequestDispatcher dispatcher = new RequestDispatcher(1, new ClerkMetrics());
+        server.enqueue(status(200).setHeadersDelay(2, TimeUnit.SECONDS));
+        server.enqueue(status(200));
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        dispatcher.submit(RequestDispatcher.Priority.TOKEN, null, 200, job -> {
+            try {
+                policy.execute(get(), true, request -> job.newCall(client, request)).close();
+            } catch (IOException e) {
+                failure.set(e);
+            }
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        dispatcher.shutdown();
+
+        assertTrue(failure.get() instanceof IOException);
+        assertEquals(1, server.getRequestCount());
+        try (Response response = policy.execute(get(), true, client::newCall)) {
+            assertEquals(200, response.code());
+        }
+    }
+
+    @Test
+    public void hedgedRequestTakesFirstResponse() throws Exception {
+        settings.put("hedgeClientFetch", true);
+        settings.put("hedgeDelayMs", 100);
+        server.enqueue(status(200).setBody("slow").setHeadersDelay(3, TimeUnit.SECONDS));
+        server.enqueue(status(200).setBody("fast"));
+
+        long start = System.nanoTime();
+        try (Response response = policy().executeHedged(get(), client::newCall)) {
+            assertEquals("fast", response.body().string());
+        }
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2_000);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void hedgingIsOffByDefault() throws Exception {
+        server.enqueue(status(200).setBody("only").setHeadersDelay(300, TimeUnit.MILLISECONDS));
+
+        try (Response response = policy().executeHedged(get(), client::newCall)) {
+            assertEquals("only", response.body().string());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+}
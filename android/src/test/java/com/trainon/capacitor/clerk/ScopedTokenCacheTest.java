@@ -0,0 +1,83 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class ScopedTokenCacheTest {
+
+    private static final String SESSION_ID = "sess_2P7lyHv4El59xzq8IrUPTolOi08";
+    private static final String USER_ID = "user_2n4RGHajS5UyV9G20Hhv7CZ7WG0";
+    private static final long NOW_MS = 1_790_000_000_000L;
+
+    private final ScopedTokenCache cache = new ScopedTokenCache();
+
+    private static String token(long expiresAtMs) {
+        return TestTokens.sessionToken(SESSION_ID, USER_ID, NOW_MS, expiresAtMs);
+    }
+
+    @Test
+    public void servesTokenUntilExpiryMargin() {
+        String key = ScopedTokenCache.key(SESSION_ID, "supabase", null);
+        long expiresAtMs = NOW_MS + 60_000;
+        String token = token(expiresAtMs);
+
+        cache.put(key, token);
+
+        assertEquals(token, cache.getFresh(key, NOW_MS));
+        assertEquals(token, cache.getFresh(key, expiresAtMs - TokenManager.EXPIRY_MARGIN_MS - 1));
+        assertNull(cache.getFresh(key, expiresAtMs - TokenManager.EXPIRY_MARGIN_MS));
+        // The expired entry is gone for good
+        assertNull(cache.getFresh(key, NOW_MS));
+    }
+
+    @Test
+    public void keySeparatesTemplateAndOrganization() {
+        assertNotEquals(ScopedTokenCache.key(SESSION_ID, "a", null), ScopedTokenCache.key(SESSION_ID, null, "a"));
+        assertNotEquals(ScopedTokenCache.key(SESSION_ID, "a", "org_1"), ScopedTokenCache.key(SESSION_ID, "a", null));
+    }
+
+    @Test
+    public void tokenWithoutExpiryIsNotCached() {
+        String key = ScopedTokenCache.key(SESSION_ID, "supabase", null);
+        cache.put(key, token(NOW_MS + 60_000));
+
+        cache.put(key, "not-a-jwt");
+
+        // Nor does it leave the previous token behind
+        assertNull(cache.getFresh(key, NOW_MS));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        String first = ScopedTokenCache.key(SESSION_ID, "template0", null);
+        cache.put(first, token(NOW_MS + 60_000));
+        cache.put(ScopedTokenCache.key(SESSION_ID, "template1", null), token(NOW_MS + 60_000));
+        for (int i = 2; i < 16; i++) {
+            cache.put(ScopedTokenCache.key(SESSION_ID, "template" + i, null), token(NOW_MS + 60_000));
+        }
+        // Touching the first entry makes template1 the eldest
+        cache.getFresh(first, NOW_MS);
+
+        cache.put(ScopedTokenCache.key(SESSION_ID, "template16", null), token(NOW_MS + 60_000));
+
+        assertNull(cache.getFresh(ScopedTokenCache.key(SESSION_ID, "template1", null), NOW_MS));
+        assertNotNull(cache.getFresh(first, NOW_MS));
+    }
+
+    @Test
+    public void clearDropsEverything() {
+        String key = ScopedTokenCache.key(SESSION_ID, null, "org_1");
+        cache.put(key, token(NOW_MS + 60_000));
+
+        cache.clear();
+
+        assertNull(cache.getFresh(key, NOW_MS));
+    }
+}
@@ -0,0 +1,101 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Date;
+
+import okhttp3.Headers;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+@RunWith(RobolectricTestRunner.class)
+public class ServerClockTest {
+
+    private static final Request REQUEST = new Request.Builder().url("https://clerk.example.com/v1/client").build();
+    private static final long NOW_MS = 1_790_000_000_000L;
+
+    private final ServerClock clock = new ServerClock();
+
+    /**
+     * A response from a server running offsetMs ahead, with a round trip centred on the middle
+     * of the second its Date header names.
+     */
+    private static Response response(long offsetMs) {
+        return new Response.Builder()
+            .request(REQUEST)
+            .protocol(Protocol.HTTP_1_1)
+            .code(200)
+            .message("OK")
+            .headers(new Headers.Builder().add("Date", new Date(NOW_MS + offsetMs)).build())
+            .sentRequestAtMillis(NOW_MS + 450)
+            .receivedResponseAtMillis(NOW_MS + 550)
+            .build();
+    }
+
+    @Test
+    public void firstSampleSetsOffsetAndLaterOnesAreSmoothed() {
+        clock.observe(response(30_000));
+        assertEquals(30_000, clock.getOffsetMs());
+
+        clock.observe(response(40_000));
+
+        assertEquals(32_000, clock.getOffsetMs());
+        assertEquals(2, clock.getSampleCount());
+        assertEquals(NOW_MS, clock.toDeviceTime(NOW_MS + 32_000));
+    }
+
+    @Test
+    public void slowRoundTripIsIgnored() {
+        Response slow = response(30_000).newBuilder().receivedResponseAtMillis(NOW_MS + 20_000).build();
+
+        clock.observe(slow);
+
+        assertEquals(0, clock.getSampleCount());
+        assertEquals(0, clock.getOffsetMs());
+    }
+
+    @Test
+    public void restoredOffsetIsSmoothedByLiveSamples() {
+        clock.restore(30_000, 12);
+        assertEquals(30_000, clock.getOffsetMs());
+
+        clock.observe(response(40_000));
+
+        assertEquals(32_000, clock.getOffsetMs());
+        assertEquals(13, clock.getSampleCount());
+    }
+
+    @Test
+    public void restoredOffsetIsDiscardedIfDeviceClockChanged() {
+        clock.restore(30_000, 12);
+
+        clock.observe(response(-3_600_000));
+
+        assertEquals(-3_600_000, clock.getOffsetMs());
+        assertEquals(1, clock.getSampleCount());
+    }
+
+    @Test
+    public void restoreIsIgnoredOnceLiveSamplesCameIn() {
+        clock.observe(response(5_000));
+
+        clock.restore(30_000, 12);
+
+        assertEquals(5_000, clock.getOffsetMs());
+        assertEquals(1, clock.getSampleCount());
+    }
+
+    @Test
+    public void emptyRestoreLeavesClockUnset() {
+        clock.restore(0, 0);
+        clock.observe(response(5_000));
+
+        assertEquals(5_000, clock.getOffsetMs());
+        assertEquals(1, clock.getSampleCount());
+    }
+}
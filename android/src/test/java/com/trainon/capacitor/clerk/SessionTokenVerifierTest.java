@@ -0,0 +1,109 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class SessionTokenVerifierTest {
+
+    private static final String SESSION_ID = "sess_2P7lyHv4El59xzq8IrUPTolOi08";
+    private static final String USER_ID = "user_2n4RGHajS5UyV9G20Hhv7CZ7WG0";
+    private static final long NOW_MS = 1_790_000_000_000L;
+
+    private final SessionTokenVerifier verifier = new SessionTokenVerifier();
+
+    @Before
+    public void setUp() {
+        verifier.setJwks(TestTokens.jwks(), NOW_MS);
+    }
+
+    @Test
+    public void unexpiredTokenIsValid() {
+        String token = TestTokens.sessionToken(SESSION_ID, USER_ID, NOW_MS - 5_000, NOW_MS + 55_000);
+
+        SessionTokenVerifier.Verification verification = verifier.verify(token, NOW_MS);
+
+        assertEquals(SessionTokenVerifier.Status.VALID, verification.status);
+        assertTrue(verification.isAuthentic());
+        assertEquals(USER_ID, verification.subject);
+        assertEquals(SESSION_ID, verification.sessionId);
+        assertEquals(NOW_MS - 5_000, verification.issuedAtMs);
+    }
+
+    @Test
+    public void expiredTokenIsAuthenticButNotValid() {
+        long issuedAtMs = NOW_MS - 30L * 24 * 60 * 60 * 1000;
+        String token = TestTokens.sessionToken(SESSION_ID, USER_ID, issuedAtMs, issuedAtMs + 60_000);
+
+        SessionTokenVerifier.Verification verification = verifier.verify(token, NOW_MS);
+
+        assertEquals(SessionTokenVerifier.Status.EXPIRED, verification.status);
+        assertTrue(verification.isAuthentic());
+        // Its age is there for the caller to judge
+        assertEquals(issuedAtMs, verification.issuedAtMs);
+    }
+
+    @Test
+    public void expiryAllowsForClockSkew() {
+        String token = TestTokens.sessionToken(SESSION_ID, USER_ID, NOW_MS - 60_000, NOW_MS - 5_000);
+
+        assertEquals(SessionTokenVerifier.Status.VALID, verifier.verify(token, NOW_MS).status);
+    }
+
+    @Test
+    public void tamperedTokenIsInvalid() {
+        String token = TestTokens.sessionToken(SESSION_ID, USER_ID, NOW_MS, NOW_MS + 60_000);
+        String forged = TestTokens.sessionToken(SESSION_ID, "user_2someoneelse0000000000000", NOW_MS, NOW_MS + 60_000);
+        String[] parts = token.split("\\.");
+        String[] forgedParts = forged.split("\\.");
+
+        SessionTokenVerifier.Verification verification =
+            verifier.verify(parts[0] + "." + forgedParts[1] + "." + parts[2], NOW_MS);
+
+        assertEquals(SessionTokenVerifier.Status.INVALID, verification.status);
+        assertFalse(verification.isAuthentic());
+    }
+
+    @Test
+    public void notYetValidTokenIsInvalid() throws Exception {
+        JSONObject claims = new JSONObject()
+            .put("sid", SESSION_ID)
+            .put("sub", USER_ID)
+            .put("nbf", (NOW_MS + 60_000) / 1000)
+            .put("exp", (NOW_MS + 120_000) / 1000);
+
+        assertEquals(SessionTokenVerifier.Status.INVALID, verifier.verify(TestTokens.sign(claims), NOW_MS).status);
+    }
+
+    @Test
+    public void unknownKeyIsUnverified() {
+        SessionTokenVerifier withoutKeys = new SessionTokenVerifier();
+        String token = TestTokens.sessionToken(SESSION_ID, USER_ID, NOW_MS, NOW_MS + 60_000);
+
+        SessionTokenVerifier.Verification verification = withoutKeys.verify(token, NOW_MS);
+
+        assertEquals(SessionTokenVerifier.Status.UNVERIFIED, verification.status);
+        assertFalse(verification.isAuthentic());
+    }
+
+    @Test
+    public void malformedTokensAreInvalid() {
+        assertEquals(SessionTokenVerifier.Status.INVALID, verifier.verify(null, NOW_MS).status);
+        assertEquals(SessionTokenVerifier.Status.INVALID, verifier.verify("not-a-jwt", NOW_MS).status);
+        assertEquals(SessionTokenVerifier.Status.INVALID, verifier.verify("a.b.c", NOW_MS).status);
+    }
+
+    @Test
+    public void keysAreRefetchedDaily() {
+        assertFalse(verifier.needsRefresh(NOW_MS + 60_000));
+        assertTrue(verifier.needsRefresh(NOW_MS + 25L * 60 * 60 * 1000));
+        assertTrue(new SessionTokenVerifier().needsRefresh(NOW_MS));
+    }
+}
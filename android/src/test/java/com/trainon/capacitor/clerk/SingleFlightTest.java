@@ -0,0 +1,195 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(RobolectricTestRunner.class)
+public class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Records what a caller got back.
+     */
+    private static final class Result<T> implements SingleFlight.Callback<T> {
+
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        volatile T value;
+        volatile Exception error;
+
+        @Override
+        public void onSuccess(T result) {
+            value = result;
+            calls.incrementAndGet();
+            done.countDown();
+        }
+
+        @Override
+        public void onError(Exception e) {
+            error = e;
+            calls.incrementAndGet();
+            done.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue("callback was never called", done.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void concurrentCallsForSameKeyShareOneExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        SingleFlight.Task<String> task = () -> {
+            runs.incrementAndGet();
+            release.await();
+            return "token";
+        };
+
+        List<Result<String>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Result<String> result = new Result<>();
+            results.add(result);
+            singleFlight.execute("getToken", executor, task, result);
+        }
+        release.countDown();
+
+        for (Result<String> result : results) {
+            result.await();
+            assertEquals("token", result.value);
+            assertEquals(1, result.calls.get());
+        }
+        assertEquals(1, runs.get());
+        assertEquals(9, singleFlight.getCoalescedCount());
+    }
+
+    @Test
+    public void differentKeysRunSeparately() throws Exception {
+        Result<String> first = new Result<>();
+        Result<String> second = new Result<>();
+
+        singleFlight.execute("getToken", executor, () -> "a", first);
+        singleFlight.execute("getToken:template", executor, () -> "b", second);
+
+        first.await();
+        second.await();
+        assertEquals("a", first.value);
+        assertEquals("b", second.value);
+        assertEquals(0, singleFlight.getCoalescedCount());
+    }
+
+    @Test
+    public void errorReachesEveryWaiter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IOException failure = new IOException("offline");
+        Result<String> first = new Result<>();
+        Result<String> second = new Result<>();
+        SingleFlight.Task<String> task = () -> {
+            release.await();
+            throw failure;
+        };
+
+        singleFlight.execute("load", executor, task, first);
+        singleFlight.execute("load", executor, task, second);
+        release.countDown();
+
+        first.await();
+        second.await();
+        assertSame(failure, first.error);
+        assertSame(failure, second.error);
+    }
+
+    @Test
+    public void completedKeyRunsAgain() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            Result<Integer> result = new Result<>();
+            singleFlight.execute("load", executor, runs::incrementAndGet, result);
+            result.await();
+            assertEquals(Integer.valueOf(i + 1), result.value);
+        }
+        assertEquals(3, runs.get());
+    }
+
+    @Test
+    public void rejectedExecutionIsReportedAndReleasesKey() throws Exception {
+        Result<String> rejected = new Result<>();
+        singleFlight.execute("load", work -> {
+            throw new RejectedExecutionException("shut down");
+        }, () -> "never", rejected);
+
+        rejected.await();
+        assertTrue(rejected.error instanceof RejectedExecutionException);
+
+        Result<String> next = new Result<>();
+        singleFlight.execute("load", executor, () -> "ok", next);
+        next.await();
+        assertEquals("ok", next.value);
+    }
+
+    @Test
+    public void stressEveryCallerIsAnsweredExactlyOnce() throws Exception {
+        int threads = 8;
+        int callsPerThread = Benchmarks.iterations(500, 20_000);
+        AtomicInteger runs = new AtomicInteger();
+        List<Result<String>> results = new ArrayList<>();
+        for (int i = 0; i < threads * callsPerThread; i++) {
+            results.add(new Result<>());
+        }
+
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            int offset = t * callsPerThread;
+            callers.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < callsPerThread; i++) {
+                    String key = "key" + (i % 4);
+                    singleFlight.execute(key, executor, () -> {
+                        runs.incrementAndGet();
+                        return key;
+                    }, results.get(offset + i));
+                }
+            });
+        }
+        start.countDown();
+        callers.shutdown();
+        assertTrue(callers.awaitTermination(30, TimeUnit.SECONDS));
+
+        for (int i = 0; i < results.size(); i++) {
+            Result<String> result = results.get(i);
+            result.await();
+            assertEquals(1, result.calls.get());
+            assertEquals("key" + (i % callsPerThread % 4), result.value);
+        }
+        // Every call either ran the task or joined a run in flight
+        assertEquals(results.size(), runs.get() + singleFlight.getCoalescedCount());
+    }
+}
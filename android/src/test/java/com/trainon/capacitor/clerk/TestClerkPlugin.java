@@ -0,0 +1,155 @@
+package com.trainon.capacitor.clerk;
+
+import android.content.Context;
+import android.util.Base64;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginConfig;
+
+import org.robolectric.RuntimeEnvironment;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * The plugin as the bridge would load it, pointed at a MockWebServer through frontendApiUrl.
+ * Plugin methods are invoked with {@link RecordingPluginCall}s and pushed events are kept.
+ */
+class TestClerkPlugin extends ClerkNativePlugin {
+
+    static final String PUBLISHABLE_KEY = "pk_test_"
+        + Base64.encodeToString("clerk.example.com$".getBytes(StandardCharsets.UTF_8), Base64.NO_WRAP);
+
+    static final class Event {
+
+        final String name;
+        final JSObject data;
+
+        Event(String name, JSObject data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private final Context context;
+    private final PluginConfig config;
+    private final List<Event> events = Collections.synchronizedList(new ArrayList<>());
+
+    TestClerkPlugin(Context context, PluginConfig config) {
+        this.context = context;
+        this.config = config;
+    }
+
+    /**
+     * Creates and loads the plugin against the server. Connection prewarming is off so that
+     * request counts only include what the plugin methods sent.
+     */
+    static TestClerkPlugin start(MockWebServer server) {
+        return start(server, Collections.emptyMap());
+    }
+
+    static TestClerkPlugin start(MockWebServer server, Map<String, ?> settings) {
+        Map<String, Object> values = new HashMap<>();
+        String url = server.url("/").toString();
+        values.put("frontendApiUrl", url.substring(0, url.length() - 1));
+        values.put("prewarmConnection", false);
+        values.putAll(settings);
+        TestClerkPlugin plugin = new TestClerkPlugin(RuntimeEnvironment.getApplication(), TestConfigs.pluginConfig(values));
+        plugin.load();
+        return plugin;
+    }
+
+    @Override
+    public Context getContext() {
+        return context;
+    }
+
+    @Override
+    public PluginConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    protected void notifyListeners(String eventName, JSObject data) {
+        events.add(new Event(eventName, data));
+    }
+
+    /**
+     * Starts a plugin method and returns the call without waiting for it.
+     */
+    RecordingPluginCall invoke(String method, JSObject data) {
+        RecordingPluginCall call = new RecordingPluginCall(method, data);
+        try {
+            ClerkNativePlugin.class.getMethod(method, PluginCall.class).invoke(this, call);
+        } catch (InvocationTargetException e) {
+            throw new AssertionError(method + " threw", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError("No plugin method " + method, e);
+        }
+        return call;
+    }
+
+    RecordingPluginCall invoke(String method) {
+        return invoke(method, new JSObject());
+    }
+
+    /**
+     * Calls a plugin method and waits for it to resolve.
+     */
+    JSObject call(String method, JSObject data) throws InterruptedException {
+        return invoke(method, data).awaitResult();
+    }
+
+    JSObject call(String method) throws InterruptedException {
+        return call(method, new JSObject());
+    }
+
+    void configure() throws InterruptedException {
+        call("configure", new JSObject().put("publishableKey", PUBLISHABLE_KEY));
+    }
+
+    JSObject signInWithPassword(String email, String password) throws InterruptedException {
+        return call("signInWithPassword", new JSObject().put("email", email).put("password", password));
+    }
+
+    List<Event> events(String name) {
+        List<Event> matching = new ArrayList<>();
+        synchronized (events) {
+            for (Event event : events) {
+                if (event.name.equals(name)) {
+                    matching.add(event);
+                }
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * As when the app goes to the background.
+     */
+    void pause() {
+        handleOnPause();
+    }
+
+    /**
+     * As when the app comes back to the foreground.
+     */
+    void resume() {
+        handleOnResume();
+    }
+
+    /**
+     * Stops the plugin's threads, as when the activity is destroyed.
+     */
+    void destroy() {
+        handleOnDestroy();
+    }
+}
@@ -0,0 +1,39 @@
+package com.trainon.capacitor.clerk;
+
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mock;
+
+import com.getcapacitor.PluginConfig;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Plugin configs as they would be read from capacitor.config.
+ */
+final class TestConfigs {
+
+    private TestConfigs() {}
+
+    static PluginConfig empty() {
+        return pluginConfig(Collections.emptyMap());
+    }
+
+    /**
+     * A config answering getString/getInt/getBoolean from the given values and falling back to
+     * the caller's default for anything missing, like the real one.
+     */
+    static PluginConfig pluginConfig(Map<String, ?> values) {
+        return mock(PluginConfig.class, invocation -> {
+            Object[] args = invocation.getArguments();
+            if (args.length == 0 || !(args[0] instanceof String)) {
+                return RETURNS_DEFAULTS.answer(invocation);
+            }
+            Object value = values.get(args[0]);
+            if (value != null) {
+                return value;
+            }
+            return args.length > 1 ? args[1] : null;
+        });
+    }
+}
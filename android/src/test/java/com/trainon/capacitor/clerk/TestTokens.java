@@ -0,0 +1,116 @@
+package com.trainon.capacitor.clerk;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Session JWTs signed the way Clerk signs them (RS256), with a key pair generated per test run.
+ */
+final class TestTokens {
+
+    static final String KEY_ID = "ins_test_key";
+
+    private static final KeyPair KEY_PAIR = generateKeyPair();
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    // Keeps tokens minted within the same second distinct
+    private static final AtomicLong TOKEN_IDS = new AtomicLong();
+
+    private TestTokens() {}
+
+    /**
+     * A token for the session, issued now and expiring after the given time.
+     */
+    static String sessionToken(String sessionId, String userId, long ttlMs) {
+        long now = System.currentTimeMillis();
+        return sessionToken(sessionId, userId, now, now + ttlMs);
+    }
+
+    static String sessionToken(String sessionId, String userId, long issuedAtMs, long expiresAtMs) {
+        try {
+            JSONObject claims = new JSONObject();
+            claims.put("sid", sessionId);
+            claims.put("sub", userId);
+            claims.put("iat", issuedAtMs / 1000);
+            claims.put("nbf", issuedAtMs / 1000 - 10);
+            claims.put("exp", expiresAtMs / 1000);
+            claims.put("jti", "tok_" + TOKEN_IDS.incrementAndGet());
+            return sign(claims);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String sign(JSONObject claims) {
+        try {
+            JSONObject header = new JSONObject();
+            header.put("alg", "RS256");
+            header.put("kid", KEY_ID);
+            header.put("typ", "JWT");
+            String signingInput = encode(header.toString().getBytes(StandardCharsets.UTF_8))
+                + "." + encode(claims.toString().getBytes(StandardCharsets.UTF_8));
+
+            Signature signature = Signature.getInstance("SHA256withRSA");
+            signature.initSign(KEY_PAIR.getPrivate());
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + encode(signature.sign());
+        } catch (JSONException | GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The JWKS document Clerk serves at /.well-known/jwks.json, holding the test key.
+     */
+    static String jwks() {
+        try {
+            RSAPublicKey publicKey = (RSAPublicKey) KEY_PAIR.getPublic();
+            JSONObject key = new JSONObject();
+            key.put("kty", "RSA");
+            key.put("use", "sig");
+            key.put("alg", "RS256");
+            key.put("kid", KEY_ID);
+            key.put("n", encode(unsigned(publicKey.getModulus())));
+            key.put("e", encode(unsigned(publicKey.getPublicExponent())));
+            JSONObject jwks = new JSONObject();
+            jwks.put("keys", new JSONArray().put(key));
+            return jwks.toString();
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return BASE64URL.encodeToString(bytes);
+    }
+
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] trimmed = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+            return trimmed;
+        }
+        return bytes;
+    }
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
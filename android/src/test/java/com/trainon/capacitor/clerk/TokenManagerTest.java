@@ -0,0 +1,106 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(RobolectricTestRunner.class)
+public class TokenManagerTest {
+
+    private static final String SESSION_ID = "sess_2P7lyHv4El59xzq8IrUPTolOi08";
+    private static final String USER_ID = "user_2n4RGHajS5UyV9G20Hhv7CZ7WG0";
+    // Longer than the resume settle delay, with room for the refresh itself
+    private static final long SETTLED_MS = 2_500;
+
+    private final AuthStateRef state = new AuthStateRef();
+    private final AtomicInteger refreshes = new AtomicInteger();
+    private final TokenManager tokenManager = new TokenManager(state, new ServerClock(), sessionId -> {
+        refreshes.incrementAndGet();
+        return TestTokens.sessionToken(sessionId, USER_ID, 60_000);
+    }, new TokenManager.Listener() {
+        @Override
+        public void onTokenRefreshed(String sessionId, String token) {}
+
+        @Override
+        public void onSessionRejected(String sessionId) {}
+    });
+
+    @After
+    public void tearDown() {
+        tokenManager.shutdown();
+    }
+
+    /**
+     * Starts with a session whose token has ttlMs left, then backgrounds the app before the
+     * initial refresh can fire.
+     */
+    private void startInBackground(long ttlMs) {
+        state.set(AuthState.EMPTY.withSession(SESSION_ID, TestTokens.sessionToken(SESSION_ID, USER_ID, ttlMs), null));
+        tokenManager.start();
+        tokenManager.pause();
+    }
+
+    @Test
+    public void nearlyExpiredTokenIsRefreshedOnceAfterResume() throws Exception {
+        startInBackground(5_000);
+
+        tokenManager.resume();
+        Thread.sleep(SETTLED_MS);
+
+        assertEquals(1, refreshes.get());
+        // The new token is good for a minute, so nothing else is due yet
+        Thread.sleep(SETTLED_MS);
+        assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    public void pauseWithinSettleDelayCancelsRefresh() throws Exception {
+        startInBackground(5_000);
+
+        tokenManager.resume();
+        Thread.sleep(500);
+        tokenManager.pause();
+        Thread.sleep(SETTLED_MS);
+
+        assertEquals(0, refreshes.get());
+    }
+
+    @Test
+    public void rapidAppSwitchingRefreshesOnce() throws Exception {
+        startInBackground(5_000);
+
+        for (int i = 0; i < 5; i++) {
+            tokenManager.resume();
+            Thread.sleep(100);
+            tokenManager.pause();
+        }
+        tokenManager.resume();
+        Thread.sleep(SETTLED_MS);
+
+        assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    public void healthyTokenIsNotRefreshedOnResume() throws Exception {
+        startInBackground(60_000);
+
+        tokenManager.resume();
+        Thread.sleep(SETTLED_MS);
+
+        assertEquals(0, refreshes.get());
+    }
+
+    @Test
+    public void explicitRefreshStillWorksWhilePaused() throws Exception {
+        startInBackground(60_000);
+
+        tokenManager.refresh(true);
+
+        assertEquals(1, refreshes.get());
+    }
+}
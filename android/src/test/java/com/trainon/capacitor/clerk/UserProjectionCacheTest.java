@@ -0,0 +1,181 @@
+package com.trainon.capacitor.clerk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+@RunWith(RobolectricTestRunner.class)
+public class UserProjectionCacheTest {
+
+    private static final String USER_ID = "user_2n4RGHajS5UyV9G20Hhv7CZ7WG0";
+    private static final long UPDATED_AT = 1_790_000_000_000L;
+
+    private final UserProjectionCache cache = new UserProjectionCache();
+
+    /**
+     * A freshly built user, as if the client response had been parsed again.
+     */
+    private static ClerkUser user(String firstName, long updatedAt) {
+        return new ClerkUser(
+            USER_ID,
+            firstName,
+            "Lovelace",
+            "https://img.clerk.com/ada.png",
+            "ada",
+            "idn_email_1",
+            Collections.singletonList(new ClerkUser.EmailAddress("idn_email_1", "ada@example.com")),
+            "idn_phone_2",
+            Arrays.asList(
+                new ClerkUser.PhoneNumber("idn_phone_1", "+15555550100"),
+                new ClerkUser.PhoneNumber("idn_phone_2", "+15555550101")
+            ),
+            Collections.singletonList(new ClerkUser.OrganizationMembership(
+                "orgmem_1", "org:admin", "org_1", "Analytical Engines", "analytical-engines", null
+            )),
+            "{\"plan\":\"pro\",\"seats\":3}",
+            updatedAt
+        );
+    }
+
+    @Test
+    public void reparsedUserIsServedFromCache() {
+        JSObject first = cache.get(user("Ada", UPDATED_AT), 0);
+
+        JSObject second = cache.get(user("Ada", UPDATED_AT), 0);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void eachFieldMaskIsCachedSeparately() {
+        ClerkUser user = user("Ada", UPDATED_AT);
+        JSObject basic = cache.get(user, 0);
+        JSObject withPhones = cache.get(user, UserProjectionCache.PHONE_NUMBERS);
+
+        assertNotSame(basic, withPhones);
+        assertSame(withPhones, cache.get(user("Ada", UPDATED_AT), UserProjectionCache.PHONE_NUMBERS));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void changedUpdatedAtRebuildsProjection() {
+        JSObject first = cache.get(user("Ada", UPDATED_AT), 0);
+
+        JSObject second = cache.get(user("Augusta", UPDATED_AT + 1_000), 0);
+
+        assertNotSame(first, second);
+        assertEquals("Augusta", second.getString("firstName"));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void sameUpdatedAtKeepsProjection() {
+        JSObject first = cache.get(user("Ada", UPDATED_AT), 0);
+
+        // Only updated_at is compared when both sides have one
+        JSObject second = cache.get(user("Augusta", UPDATED_AT), 0);
+
+        assertSame(first, second);
+        assertEquals("Ada", second.getString("firstName"));
+    }
+
+    @Test
+    public void missingUpdatedAtFallsBackToFullComparison() {
+        JSObject first = cache.get(user("Ada", 0), 0);
+
+        assertSame(first, cache.get(user("Ada", 0), 0));
+
+        JSObject renamed = cache.get(user("Augusta", 0), 0);
+        assertNotSame(first, renamed);
+        assertEquals("Augusta", renamed.getString("firstName"));
+    }
+
+    @Test
+    public void basicProjectionLeavesOptionalFieldsOut() {
+        JSObject projected = cache.get(user("Ada", UPDATED_AT), 0);
+
+        assertEquals(USER_ID, projected.getString("id"));
+        assertEquals("ada@example.com", projected.getString("emailAddress"));
+        assertFalse(projected.has("phoneNumber"));
+        assertFalse(projected.has("phoneNumbers"));
+        assertFalse(projected.has("organizationMemberships"));
+        assertFalse(projected.has("publicMetadata"));
+    }
+
+    @Test
+    public void phoneNumbersMask() throws Exception {
+        JSObject projected = cache.get(user("Ada", UPDATED_AT), UserProjectionCache.PHONE_NUMBERS);
+
+        assertEquals("+15555550101", projected.getString("phoneNumber"));
+        JSONArray phones = projected.getJSONArray("phoneNumbers");
+        assertEquals(2, phones.length());
+        assertEquals("idn_phone_1", phones.getJSONObject(0).getString("id"));
+        assertEquals("+15555550100", phones.getJSONObject(0).getString("phoneNumber"));
+        assertFalse(projected.has("organizationMemberships"));
+        assertFalse(projected.has("publicMetadata"));
+    }
+
+    @Test
+    public void organizationsMask() throws Exception {
+        JSObject projected = cache.get(user("Ada", UPDATED_AT), UserProjectionCache.ORGANIZATIONS);
+
+        JSONArray memberships = projected.getJSONArray("organizationMemberships");
+        assertEquals(1, memberships.length());
+        JSONObject membership = memberships.getJSONObject(0);
+        assertEquals("orgmem_1", membership.getString("id"));
+        assertEquals("org:admin", membership.getString("role"));
+        assertEquals("org_1", membership.getString("organizationId"));
+        assertEquals("analytical-engines", membership.getString("organizationSlug"));
+        assertFalse(projected.has("phoneNumbers"));
+        assertFalse(projected.has("publicMetadata"));
+    }
+
+    @Test
+    public void publicMetadataMask() throws Exception {
+        JSObject projected = cache.get(user("Ada", UPDATED_AT), UserProjectionCache.PUBLIC_METADATA);
+
+        JSONObject metadata = projected.getJSONObject("publicMetadata");
+        assertEquals("pro", metadata.getString("plan"));
+        assertEquals(3, metadata.getInt("seats"));
+        assertFalse(projected.has("phoneNumbers"));
+        assertFalse(projected.has("organizationMemberships"));
+    }
+
+    @Test
+    public void combinedMasksShareSections() throws Exception {
+        ClerkUser user = user("Ada", UPDATED_AT);
+        JSObject phones = cache.get(user, UserProjectionCache.PHONE_NUMBERS);
+
+        JSObject all = cache.get(
+            user,
+            UserProjectionCache.PHONE_NUMBERS | UserProjectionCache.ORGANIZATIONS | UserProjectionCache.PUBLIC_METADATA
+        );
+
+        assertSame(phones.getJSONArray("phoneNumbers"), all.getJSONArray("phoneNumbers"));
+        assertTrue(all.has("organizationMemberships"));
+        assertTrue(all.has("publicMetadata"));
+    }
+
+    @Test
+    public void nullUserHasNoProjection() {
+        assertNull(cache.get(null, UserProjectionCache.PHONE_NUMBERS));
+        assertEquals(0, cache.getMissCount());
+    }
+}
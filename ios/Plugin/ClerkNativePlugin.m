@@ -6,6 +6,7 @@ CAP_PLUGIN(ClerkNativePlugin, "ClerkNative",
            CAP_PLUGIN_METHOD(load, CAPPluginReturnPromise);
            CAP_PLUGIN_METHOD(signInWithEmail, CAPPluginReturnPromise);
            CAP_PLUGIN_METHOD(verifyEmailCode, CAPPluginReturnPromise);
+           CAP_PLUGIN_METHOD(prepareSignIn, CAPPluginReturnPromise);
            CAP_PLUGIN_METHOD(signInWithPassword, CAPPluginReturnPromise);
            CAP_PLUGIN_METHOD(signUp, CAPPluginReturnPromise);
            CAP_PLUGIN_METHOD(verifySignUpEmail, CAPPluginReturnPromise);
@@ -16,5 +17,9 @@ CAP_PLUGIN(ClerkNativePlugin, "ClerkNative",
            CAP_PLUGIN_METHOD(requestPasswordReset, CAPPluginReturnPromise);
            CAP_PLUGIN_METHOD(resetPassword, CAPPluginReturnPromise);
            CAP_PLUGIN_METHOD(refreshSession, CAPPluginReturnPromise);
+           CAP_PLUGIN_METHOD(listSessions, CAPPluginReturnPromise);
+           CAP_PLUGIN_METHOD(setActiveSession, CAPPluginReturnPromise);
+           CAP_PLUGIN_METHOD(getMetrics, CAPPluginReturnPromise);
+           CAP_PLUGIN_METHOD(resetMetrics, CAPPluginReturnPromise);
 )
 
@@ -221,4 +221,29 @@ public class ClerkNativePlugin: CAPPlugin {
         // Refresh session token - not implemented in simplified bridge
         call.reject("Refresh session not implemented")
     }
+
+    @objc func prepareSignIn(_ call: CAPPluginCall) {
+        // Speculative sign-in creation - not implemented in simplified bridge
+        call.reject("Prepare sign in not implemented")
+    }
+
+    @objc func listSessions(_ call: CAPPluginCall) {
+        // Multi-session - not implemented in simplified bridge
+        call.reject("List sessions not implemented")
+    }
+
+    @objc func setActiveSession(_ call: CAPPluginCall) {
+        // Multi-session - not implemented in simplified bridge
+        call.reject("Set active session not implemented")
+    }
+
+    @objc func getMetrics(_ call: CAPPluginCall) {
+        // Metrics are collected by the Android HTTP implementation only
+        call.reject("Metrics not implemented")
+    }
+
+    @objc func resetMetrics(_ call: CAPPluginCall) {
+        // Metrics are collected by the Android HTTP implementation only
+        call.reject("Metrics not implemented")
+    }
 }
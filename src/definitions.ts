@@ -1,3 +1,5 @@
+import type { PluginListenerHandle } from '@capacitor/core';
+
 export interface ClerkNativePlugin {
   /**
    * Configure Clerk with publishable key
@@ -19,6 +21,12 @@ export interface ClerkNativePlugin {
    */
   verifyEmailCode(options: VerifyEmailCodeOptions): Promise<VerifyEmailCodeResponse>;
 
+  /**
+   * Create the sign-in ahead of time, e.g. when the email field loses focus, so that the
+   * sign-in call that follows saves a round trip (Android)
+   */
+  prepareSignIn(options: PrepareSignInOptions): Promise<void>;
+
   /**
    * Sign in with email and password
    */
@@ -37,12 +45,12 @@ export interface ClerkNativePlugin {
   /**
    * Get current user
    */
-  getUser(): Promise<GetUserResponse>;
+  getUser(options?: GetUserOptions): Promise<GetUserResponse>;
 
   /**
-   * Get authentication token
+   * Get authentication token, optionally from a JWT template or for an organization (Android)
    */
-  getToken(): Promise<GetTokenResponse>;
+  getToken(options?: GetTokenOptions): Promise<GetTokenResponse>;
 
   /**
    * Sign out current user
@@ -68,6 +76,55 @@ export interface ClerkNativePlugin {
    * Refresh session token
    */
   refreshSession(): Promise<RefreshSessionResponse>;
+
+  /**
+   * List the sessions on this device's Clerk client (Android)
+   */
+  listSessions(): Promise<ListSessionsResponse>;
+
+  /**
+   * Switch to another session on the client without a network round trip (Android)
+   */
+  setActiveSession(options: SetActiveSessionOptions): Promise<SetActiveSessionResponse>;
+
+  /**
+   * Get latency and error metrics for the plugin's Clerk calls (Android)
+   */
+  getMetrics(): Promise<ClerkMetrics>;
+
+  /**
+   * Reset latency and error metrics (Android)
+   */
+  resetMetrics(): Promise<void>;
+
+  /**
+   * Listen for the session token being refreshed or replaced (Android)
+   */
+  addListener(
+    eventName: 'tokenChanged',
+    listenerFunc: (event: TokenChangedEvent) => void,
+  ): Promise<PluginListenerHandle>;
+
+  /**
+   * Listen for the signed-in user changing (Android)
+   */
+  addListener(
+    eventName: 'userChanged',
+    listenerFunc: (event: UserChangedEvent) => void,
+  ): Promise<PluginListenerHandle>;
+
+  /**
+   * Listen for the session ending, locally or elsewhere (Android)
+   */
+  addListener(
+    eventName: 'sessionEnded',
+    listenerFunc: (event: SessionEndedEvent) => void,
+  ): Promise<PluginListenerHandle>;
+
+  /**
+   * Remove all listeners for this plugin
+   */
+  removeAllListeners(): Promise<void>;
 }
 
 export interface ClerkUser {
@@ -77,11 +134,60 @@ export interface ClerkUser {
   emailAddress: string | null;
   imageUrl: string | null;
   username: string | null;
+  /**
+   * Only present when requested with `includePhoneNumbers` (Android)
+   */
+  phoneNumber?: string | null;
+  phoneNumbers?: ClerkPhoneNumber[];
+  /**
+   * Only present when requested with `includeOrganizations` (Android)
+   */
+  organizationMemberships?: ClerkOrganizationMembership[];
+  /**
+   * Only present when requested with `includePublicMetadata` (Android)
+   */
+  publicMetadata?: Record<string, unknown>;
+}
+
+export interface ClerkPhoneNumber {
+  id: string;
+  phoneNumber: string;
+}
+
+export interface ClerkOrganizationMembership {
+  id: string;
+  role: string;
+  organizationId: string;
+  organizationName: string | null;
+  organizationSlug: string | null;
+  organizationImageUrl: string | null;
 }
 
 // Response Types
 export interface LoadResponse {
   user: ClerkUser | null;
+  /**
+   * True when the user was served from the persisted snapshot and is still being
+   * revalidated in the background. A `userChanged` event follows if it turns out different.
+   */
+  stale?: boolean;
+  /**
+   * Set on stale responses (Android). True when the persisted session token was checked
+   * offline against Clerk's cached signing keys, was issued for this user and session, and
+   * has not expired.
+   */
+  verified?: boolean;
+  /**
+   * Set on stale responses (Android). True when the persisted session token was signed by
+   * Clerk for this user and session, even if it has expired. It proves who the session
+   * belonged to at `issuedAt`, not that it is still active.
+   */
+  authentic?: boolean;
+  /**
+   * When the persisted session token was issued, in milliseconds since the epoch on the
+   * device clock. Null unless `authentic`.
+   */
+  issuedAt?: number | null;
 }
 
 export interface SignInWithEmailResponse {
@@ -111,6 +217,11 @@ export interface GetUserResponse {
 
 export interface GetTokenResponse {
   token: string | null;
+  /**
+   * Token expiry in milliseconds since the epoch on the device clock, corrected for the
+   * device's offset from Clerk's clock, when known (Android)
+   */
+  expiresAt?: number | null;
 }
 
 export interface UpdateUserResponse {
@@ -119,6 +230,136 @@ export interface UpdateUserResponse {
 
 export interface RefreshSessionResponse {
   token: string | null;
+  /**
+   * Token expiry in milliseconds since the epoch on the device clock, corrected for the
+   * device's offset from Clerk's clock, when known (Android)
+   */
+  expiresAt?: number | null;
+}
+
+export interface SessionSummary {
+  id: string;
+  status: string | null;
+  /**
+   * True for the session whose token getToken() returns
+   */
+  active: boolean;
+  user: ClerkUser | null;
+}
+
+export interface ListSessionsResponse {
+  sessions: SessionSummary[];
+  activeSessionId: string | null;
+}
+
+export interface SetActiveSessionResponse {
+  user: ClerkUser | null;
+}
+
+export interface LatencyHistogram {
+  count: number;
+  meanMs: number;
+  maxMs: number;
+  /**
+   * Percentiles are bucket upper bounds, not exact values
+   */
+  p50Ms: number;
+  p90Ms: number;
+  p99Ms: number;
+}
+
+export interface EndpointMetrics {
+  latency: LatencyHistogram;
+  /**
+   * Response counts keyed by HTTP status code
+   */
+  statusCodes: Record<string, number>;
+  /**
+   * Calls that failed without a response
+   */
+  failures: number;
+}
+
+export interface ClerkMetrics {
+  /**
+   * Keyed by method and path, e.g. "GET /v1/client"
+   */
+  endpoints: Record<string, EndpointMetrics>;
+  phases: {
+    dns: LatencyHistogram;
+    connect: LatencyHistogram;
+    tls: LatencyHistogram;
+    timeToFirstByte: LatencyHistogram;
+  };
+  parse: LatencyHistogram;
+  /**
+   * Time requests waited for a worker, keyed by dispatcher lane
+   */
+  queueWait: Record<string, LatencyHistogram>;
+  /**
+   * Most requests seen waiting for a worker at once
+   */
+  peakQueueDepth: number;
+  /**
+   * Requests waiting for and holding a worker right now
+   */
+  dispatcher: {
+    queued: number;
+    active: number;
+  };
+  /**
+   * Time from the bridge call to its result, keyed by plugin method (load, getUser, getToken,
+   * refreshSession). Includes calls answered from memory.
+   */
+  calls: Record<string, LatencyHistogram>;
+  /**
+   * Milliseconds since the metrics were last reset; divide counts by this for throughput
+   */
+  windowMs: number;
+  /**
+   * GET /v1/client revalidations answered with a 304 (hits) or a full body (misses)
+   */
+  clientCache: {
+    hits: number;
+    misses: number;
+  };
+  /**
+   * Reuse of the memoized JS view of the user
+   */
+  userProjection: {
+    hits: number;
+    misses: number;
+  };
+  store: {
+    writeRequests: number;
+    diskWrites: number;
+  };
+  /**
+   * Estimated offset of Clerk's clock from the device clock, from the Date header of responses
+   */
+  serverClock: {
+    offsetMs: number;
+    samples: number;
+  };
+  coalescedCalls: number;
+}
+
+// Event Types
+export interface TokenChangedEvent {
+  token: string | null;
+  /**
+   * Token expiry in milliseconds since the epoch on the device clock, corrected for the
+   * device's offset from Clerk's clock, when known
+   */
+  expiresAt: number | null;
+}
+
+export interface UserChangedEvent {
+  user: ClerkUser | null;
+}
+
+export interface SessionEndedEvent {
+  sessionId: string;
 }
 
 // Parameter Types
@@ -164,6 +405,31 @@ export interface ResetPasswordOptions {
   newPassword: string;
 }
 
+export interface PrepareSignInOptions {
+  email: string;
+}
+
+export interface GetTokenOptions {
+  /**
+   * Name of a JWT template to mint the token from
+   */
+  template?: string;
+  /**
+   * Organization to scope the token to instead of the session's active one
+   */
+  organizationId?: string;
+}
+
+export interface GetUserOptions {
+  includePhoneNumbers?: boolean;
+  includeOrganizations?: boolean;
+  includePublicMetadata?: boolean;
+}
+
+export interface SetActiveSessionOptions {
+  sessionId: string;
+}
+
 // Error Types
 export interface ClerkError {
   message: string;
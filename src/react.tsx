@@ -1,4 +1,4 @@
-import React, { createContext, useContext, useEffect, useState, useCallback } from 'react';
+import React, { createContext, useContext, useEffect, useState, useCallback, useRef } from 'react';
 import { ClerkNative } from './index';
 import type {
   ClerkUser,
@@ -6,6 +6,7 @@ import type {
   SignUpResponse,
   SignUpOptions,
   UpdateUserOptions,
+  GetTokenOptions,
 } from './definitions';
 
 interface ClerkContextValue {
@@ -15,10 +16,11 @@ interface ClerkContextValue {
   signInWithEmail: (email: string) => Promise<SignInWithEmailResponse>;
   verifyEmailCode: (code: string) => Promise<void>;
   signInWithPassword: (email: string, password: string) => Promise<void>;
+  prepareSignIn: (email: string) => Promise<void>;
   signUp: (options: SignUpOptions) => Promise<SignUpResponse>;
   verifySignUpEmail: (code: string) => Promise<void>;
   signOut: () => Promise<void>;
-  getToken: () => Promise<string | null>;
+  getToken: (options?: GetTokenOptions) => Promise<string | null>;
   updateUser: (options: UpdateUserOptions) => Promise<void>;
   requestPasswordReset: (email: string) => Promise<void>;
   resetPassword: (code: string, newPassword: string) => Promise<void>;
@@ -27,6 +29,23 @@ interface ClerkContextValue {
 
 const ClerkContext = createContext<ClerkContextValue | null>(null);
 
+// Stop serving a mirrored token this long before it expires
+const TOKEN_EXPIRY_MARGIN_MS = 2000;
+
+interface TokenMirror {
+  token: string | null;
+  expiresAt: number | null;
+}
+
+function isMirrorFresh(mirror: TokenMirror | null): mirror is TokenMirror {
+  return (
+    mirror !== null &&
+    mirror.token !== null &&
+    mirror.expiresAt !== null &&
+    mirror.expiresAt - TOKEN_EXPIRY_MARGIN_MS > Date.now()
+  );
+}
+
 export interface ClerkProviderProps {
   publishableKey: string;
   children: React.ReactNode;
@@ -35,6 +54,8 @@ export interface ClerkProviderProps {
 export function ClerkProvider({ publishableKey, children }: ClerkProviderProps) {
   const [isLoaded, setIsLoaded] = useState(false);
   const [user, setUser] = useState<ClerkUser | null>(null);
+  // Local copy of the session token kept current by native events, so getToken() can skip the bridge
+  const tokenMirror = useRef<TokenMirror | null>(null);
 
   useEffect(() => {
     const initClerk = async () => {
@@ -52,6 +73,26 @@ export function ClerkProvider({ publishableKey, children }: ClerkProviderProps)
     initClerk();
   }, [publishableKey]);
 
+  useEffect(() => {
+    const handles = [
+      ClerkNative.addListener('tokenChanged', (event) => {
+        tokenMirror.current = { token: event.token, expiresAt: event.expiresAt };
+      }),
+      // load() may answer from the persisted snapshot; pick up whatever revalidation finds
+      ClerkNative.addListener('userChanged', (event) => {
+        setUser(event.user);
+      }),
+      ClerkNative.addListener('sessionEnded', () => {
+        tokenMirror.current = null;
+        setUser(null);
+      }),
+    ];
+
+    return () => {
+      handles.forEach((handle) => handle.then((h) => h.remove()));
+    };
+  }, []);
+
   const signInWithEmail = useCallback(async (email: string) => {
     const result = await ClerkNative.signInWithEmail({ email });
     return result;
@@ -67,6 +108,15 @@ export function ClerkProvider({ publishableKey, children }: ClerkProviderProps)
     setUser(result.user);
   }, []);
 
+  const prepareSignIn = useCallback(async (email: string) => {
+    // Only an optimization: the sign-in itself still works if this fails
+    try {
+      await ClerkNative.prepareSignIn({ email });
+    } catch (error) {
+      console.warn('Failed to prepare sign in:', error);
+    }
+  }, []);
+
   const signUp = useCallback(async (options: SignUpOptions): Promise<SignUpResponse> => {
     const result = await ClerkNative.signUp(options);
     if (!result.requiresVerification) {
@@ -82,11 +132,21 @@ export function ClerkProvider({ publishableKey, children }: ClerkProviderProps)
 
   const signOut = useCallback(async () => {
     await ClerkNative.signOut();
+    tokenMirror.current = null;
     setUser(null);
   }, []);
 
-  const getToken = useCallback(async () => {
+  const getToken = useCallback(async (options?: GetTokenOptions) => {
+    // Template and organization tokens are cached natively; only the session token is mirrored
+    if (options?.template || options?.organizationId) {
+      const result = await ClerkNative.getToken(options);
+      return result.token;
+    }
+    if (isMirrorFresh(tokenMirror.current)) {
+      return tokenMirror.current.token;
+    }
     const result = await ClerkNative.getToken();
+    tokenMirror.current = { token: result.token, expiresAt: result.expiresAt ?? null };
     return result.token;
   }, []);
 
@@ -105,6 +165,7 @@ export function ClerkProvider({ publishableKey, children }: ClerkProviderProps)
 
   const refreshSession = useCallback(async () => {
     const result = await ClerkNative.refreshSession();
+    tokenMirror.current = { token: result.token, expiresAt: result.expiresAt ?? null };
     return result.token;
   }, []);
 
@@ -115,6 +176,7 @@ export function ClerkProvider({ publishableKey, children }: ClerkProviderProps)
     signInWithEmail,
     verifyEmailCode,
     signInWithPassword,
+    prepareSignIn,
     signUp,
     verifySignUpEmail,
     signOut,
@@ -147,9 +209,10 @@ export function useAuth() {
 }
 
 export function useSignIn() {
-  const { signInWithEmail, verifyEmailCode, signInWithPassword, isLoaded } = useClerk();
+  const { signInWithEmail, verifyEmailCode, signInWithPassword, prepareSignIn, isLoaded } = useClerk();
   return {
     isLoaded,
+    prepareSignIn,
     signIn: {
       create: async ({ identifier, password }: { identifier: string; password?: string }) => {
         // If password is provided, sign in directly with password
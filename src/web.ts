@@ -12,15 +12,22 @@ import type {
   GetTokenResponse,
   UpdateUserResponse,
   RefreshSessionResponse,
+  ListSessionsResponse,
+  SetActiveSessionResponse,
+  ClerkMetrics,
   ConfigureOptions,
   SignInWithEmailOptions,
   VerifyEmailCodeOptions,
   SignInWithPasswordOptions,
+  PrepareSignInOptions,
   SignUpOptions,
+  GetUserOptions,
+  GetTokenOptions,
   VerifySignUpEmailOptions,
   UpdateUserOptions,
   RequestPasswordResetOptions,
   ResetPasswordOptions,
+  SetActiveSessionOptions,
 } from './definitions';
 
 export class ClerkNativeWeb extends WebPlugin implements ClerkNativePlugin {
@@ -40,6 +47,10 @@ export class ClerkNativeWeb extends WebPlugin implements ClerkNativePlugin {
     throw this.unimplemented('Clerk Native is only available on iOS and Android');
   }
 
+  async prepareSignIn(_options: PrepareSignInOptions): Promise<void> {
+    throw this.unimplemented('Clerk Native is only available on iOS and Android');
+  }
+
   async signInWithPassword(_options: SignInWithPasswordOptions): Promise<SignInWithPasswordResponse> {
     throw this.unimplemented('Clerk Native is only available on iOS and Android');
   }
@@ -52,11 +63,11 @@ export class ClerkNativeWeb extends WebPlugin implements ClerkNativePlugin {
     throw this.unimplemented('Clerk Native is only available on iOS and Android');
   }
 
-  async getUser(): Promise<GetUserResponse> {
+  async getUser(_options?: GetUserOptions): Promise<GetUserResponse> {
     throw this.unimplemented('Clerk Native is only available on iOS and Android');
   }
 
-  async getToken(): Promise<GetTokenResponse> {
+  async getToken(_options?: GetTokenOptions): Promise<GetTokenResponse> {
     throw this.unimplemented('Clerk Native is only available on iOS and Android');
   }
 
@@ -79,5 +90,21 @@ export class ClerkNativeWeb extends WebPlugin implements ClerkNativePlugin {
   async refreshSession(): Promise<RefreshSessionResponse> {
     throw this.unimplemented('Clerk Native is only available on iOS and Android');
   }
+
+  async listSessions(): Promise<ListSessionsResponse> {
+    throw this.unimplemented('Clerk Native is only available on iOS and Android');
+  }
+
+  async setActiveSession(_options: SetActiveSessionOptions): Promise<SetActiveSessionResponse> {
+    throw this.unimplemented('Clerk Native is only available on iOS and Android');
+  }
+
+  async getMetrics(): Promise<ClerkMetrics> {
+    throw this.unimplemented('Clerk Native is only available on iOS and Android');
+  }
+
+  async resetMetrics(): Promise<void> {
+    throw this.unimplemented('Clerk Native is only available on iOS and Android');
+  }
 }
 